@@ -0,0 +1,85 @@
+package com.floatie.bench;
+
+import com.floatie.BlockKey;
+import com.floatie.LongHashSet;
+import com.floatie.TreeScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key packing and visited-set hashing over the blocks of a synthetic tree.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockKeyBenchmark {
+
+    @Param({"OAK", "DARK_OAK", "MEGA_JUNGLE", "CHERRY", "GIANT"})
+    public TreeShape shape;
+
+    private int[] xs;
+    private int[] ys;
+    private int[] zs;
+    private long[] keys;
+    private LongHashSet visited;
+
+    @Setup
+    public void setUp() {
+        TreeScanner.ScanResult result = TreeScanner.get().scan(shape.create(), null,
+                TreeShape.HIT_X, TreeShape.HIT_Y, TreeShape.HIT_Z, 5000, 6, 80);
+
+        keys = new long[result.logs().length + result.leaves().length];
+        System.arraycopy(result.logs(), 0, keys, 0, result.logs().length);
+        System.arraycopy(result.leaves(), 0, keys, result.logs().length, result.leaves().length);
+
+        xs = new int[keys.length];
+        ys = new int[keys.length];
+        zs = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            xs[i] = BlockKey.x(keys[i]);
+            ys[i] = BlockKey.y(keys[i]);
+            zs[i] = BlockKey.z(keys[i]);
+        }
+
+        visited = new LongHashSet(keys.length);
+    }
+
+    @Benchmark
+    public long packAndUnpack() {
+        long sum = 0;
+        for (int i = 0; i < xs.length; i++) {
+            long key = BlockKey.pack(xs[i], ys[i], zs[i]);
+            sum += BlockKey.x(key) + BlockKey.y(key) + BlockKey.z(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int addAndContains() {
+        visited.clear();
+        int hits = 0;
+        for (long key : keys) {
+            visited.add(key);
+        }
+        for (long key : keys) {
+            if (visited.contains(key + 1)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
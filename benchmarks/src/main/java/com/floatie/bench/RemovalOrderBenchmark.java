@@ -0,0 +1,112 @@
+package com.floatie.bench;
+
+import com.floatie.BlockKey;
+import com.floatie.LayerQueue;
+import com.floatie.TreeScanner;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removal ordering: the Y-layer queues jobs use now, against the comparator
+ * sort over the whole tree they replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemovalOrderBenchmark {
+
+    private static final Set<Material> LEAVES = EnumSet.noneOf(Material.class);
+
+    static {
+        for (Material type : Material.values()) {
+            if (type.name().endsWith("_LEAVES")) {
+                LEAVES.add(type);
+            }
+        }
+    }
+
+    @Param({"OAK", "DARK_OAK", "MEGA_JUNGLE", "CHERRY", "GIANT"})
+    public TreeShape shape;
+
+    @Param({"64", "500", "5000"})
+    public int maxBlocks;
+
+    private long[] logs;
+    private Material logType;
+    private long[] leaves;
+    private Material[] leafTypes;
+
+    @Setup
+    public void setUp() {
+        TreeScanner.ScanResult result = TreeScanner.get().scan(shape.create(), null,
+                TreeShape.HIT_X, TreeShape.HIT_Y, TreeShape.HIT_Z, maxBlocks, 6, 80);
+        logs = result.logs();
+        logType = result.logType();
+        leaves = result.leaves();
+        leafTypes = result.leafTypes();
+    }
+
+    @Benchmark
+    public void layerQueues(Blackhole blackhole) {
+        LayerQueue leafQueue = new LayerQueue();
+        LayerQueue logQueue = new LayerQueue();
+        for (int i = 0; i < leaves.length; i++) {
+            leafQueue.add(leaves[i], leafTypes[i]);
+        }
+        for (long log : logs) {
+            logQueue.add(log, logType);
+        }
+
+        LayerQueue.BlockVisitor sink = (key, type) -> blackhole.consume(key);
+        while (leafQueue.drain(8, sink) > 0) {
+            // Drained in slices like the removal scheduler
+        }
+        while (logQueue.drain(8, sink) > 0) {
+            // Drained in slices like the removal scheduler
+        }
+    }
+
+    @Benchmark
+    public List<Queued> comparatorSort() {
+        int lowestY = BlockKey.y(logs[0]);
+        List<Queued> blocks = new ArrayList<>(logs.length + leaves.length);
+        for (long log : logs) {
+            blocks.add(new Queued(log, logType));
+        }
+        for (int i = 0; i < leaves.length; i++) {
+            blocks.add(new Queued(leaves[i], leafTypes[i]));
+        }
+
+        blocks.sort((b1, b2) -> {
+            boolean leaf1 = LEAVES.contains(b1.type());
+            boolean leaf2 = LEAVES.contains(b2.type());
+            if (leaf1 != leaf2) {
+                return leaf1 ? -1 : 1;
+            }
+            return Integer.compare(Math.abs(BlockKey.y(b1.key()) - lowestY), Math.abs(BlockKey.y(b2.key()) - lowestY));
+        });
+        return blocks;
+    }
+
+    public record Queued(long key, Material type) {}
+}
@@ -0,0 +1,70 @@
+package com.floatie.bench;
+
+import com.floatie.TreeScanner;
+import com.floatie.VoxelBlockAccess;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log search, leaf search and the full scan on synthetic trees.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeScanBenchmark {
+
+    private static final int LEAF_SEARCH_RADIUS = 6;
+    private static final int MAX_DISTANCE = 80;
+
+    @Param({"OAK", "DARK_OAK", "MEGA_JUNGLE", "CHERRY", "GIANT"})
+    public TreeShape shape;
+
+    @Param({"64", "500", "5000"})
+    public int maxBlocks;
+
+    private VoxelBlockAccess world;
+    private long[] logs;
+    private Material logType;
+
+    @Setup
+    public void setUp() {
+        world = shape.create();
+        TreeScanner.ScanResult result = TreeScanner.get().scan(world, null,
+                TreeShape.HIT_X, TreeShape.HIT_Y, TreeShape.HIT_Z, maxBlocks, 0, MAX_DISTANCE);
+        logs = result.logs();
+        logType = result.logType();
+    }
+
+    @Benchmark
+    public TreeScanner.ScanResult connectedLogs() {
+        return TreeScanner.get().scan(world, null,
+                TreeShape.HIT_X, TreeShape.HIT_Y, TreeShape.HIT_Z, maxBlocks, 0, MAX_DISTANCE);
+    }
+
+    @Benchmark
+    public TreeScanner.ScanResult attachedLeaves() {
+        return TreeScanner.get().scanLeaves(world, null, null, logs, logType,
+                TreeShape.HIT_X, TreeShape.HIT_Y, TreeShape.HIT_Z, maxBlocks, LEAF_SEARCH_RADIUS, MAX_DISTANCE);
+    }
+
+    @Benchmark
+    public TreeScanner.ScanResult fullScan() {
+        return TreeScanner.get().scan(world, null,
+                TreeShape.HIT_X, TreeShape.HIT_Y, TreeShape.HIT_Z, maxBlocks, LEAF_SEARCH_RADIUS, MAX_DISTANCE);
+    }
+}
@@ -0,0 +1,103 @@
+package com.floatie.bench;
+
+import com.floatie.MaterialSet;
+import com.floatie.VoxelBlockAccess;
+import org.bukkit.Material;
+
+/**
+ * Synthetic trees roughly matching the vanilla shapes, each built in its own
+ * volume with the trunk base at the origin.
+ */
+public enum TreeShape {
+
+    OAK {
+        @Override
+        void build(VoxelBlockAccess world) {
+            world.fill(-2, 3, -2, 2, 4, 2, Material.OAK_LEAVES);
+            world.fill(-1, 5, -1, 1, 6, 1, Material.OAK_LEAVES);
+            world.fill(0, 0, 0, 0, 5, 0, Material.OAK_LOG);
+        }
+    },
+
+    DARK_OAK {
+        @Override
+        void build(VoxelBlockAccess world) {
+            world.fill(-3, 5, -3, 4, 6, 4, Material.DARK_OAK_LEAVES);
+            world.fill(-2, 7, -2, 3, 8, 3, Material.DARK_OAK_LEAVES);
+            world.fill(0, 0, 0, 1, 7, 1, Material.DARK_OAK_LOG);
+            world.fill(-2, 5, 0, -1, 5, 0, Material.DARK_OAK_LOG);
+            world.fill(2, 6, 1, 3, 6, 1, Material.DARK_OAK_LOG);
+        }
+    },
+
+    MEGA_JUNGLE {
+        @Override
+        void build(VoxelBlockAccess world) {
+            world.fill(-5, 27, -5, 6, 29, 6, Material.JUNGLE_LEAVES);
+            world.fill(-3, 30, -3, 4, 31, 4, Material.JUNGLE_LEAVES);
+            for (int y = 12; y < 26; y += 5) {
+                int side = (y / 5) % 2 == 0 ? -3 : 4;
+                world.fill(side - 2, y, -2, side + 2, y + 1, 3, Material.JUNGLE_LEAVES);
+                world.fill(Math.min(side, 1), y, 0, Math.max(side, 0), y, 0, Material.JUNGLE_LOG);
+            }
+            world.fill(0, 0, 0, 1, 30, 1, Material.JUNGLE_LOG);
+        }
+    },
+
+    CHERRY {
+        @Override
+        void build(VoxelBlockAccess world) {
+            world.fill(-7, 7, -3, -1, 9, 3, Material.CHERRY_LEAVES);
+            world.fill(1, 8, -3, 7, 10, 3, Material.CHERRY_LEAVES);
+            world.fill(0, 0, 0, 0, 4, 0, Material.CHERRY_LOG);
+            world.fill(-4, 4, 0, -1, 4, 0, Material.CHERRY_LOG);
+            world.fill(-4, 5, 0, -4, 8, 0, Material.CHERRY_LOG);
+            world.fill(1, 5, 0, 4, 5, 0, Material.CHERRY_LOG);
+            world.fill(4, 6, 0, 4, 9, 0, Material.CHERRY_LOG);
+        }
+    },
+
+    /**
+     * Stacks square canopy layers until the tree holds {@link #GIANT_BLOCKS}
+     * blocks, so it reaches the largest max-blocks the benchmarks use. Each
+     * layer has rows of branch logs six apart, which keeps every leaf within
+     * leaf distance of a log.
+     */
+    GIANT {
+        @Override
+        void build(VoxelBlockAccess world) {
+            int radius = 12;
+            int side = radius * 2 + 1;
+            int y = 8;
+            int blocks = y;
+
+            for (; blocks < GIANT_BLOCKS; y++) {
+                world.fill(-radius, y, -radius, radius, y, radius, Material.SPRUCE_LEAVES);
+                for (int z = -radius; z <= radius; z += 6) {
+                    world.fill(-radius, y, z, radius, y, z, Material.SPRUCE_LOG);
+                }
+                world.fill(0, y, -radius, 0, y, radius, Material.SPRUCE_LOG);
+                blocks += side * side;
+            }
+            world.fill(0, 0, 0, 0, y - 1, 0, Material.SPRUCE_LOG);
+        }
+    };
+
+    private static final int GIANT_BLOCKS = 5000;
+
+    private static final MaterialSet LOGS = MaterialSet.of(
+            Material.OAK_LOG, Material.DARK_OAK_LOG, Material.JUNGLE_LOG, Material.CHERRY_LOG, Material.SPRUCE_LOG);
+
+    public static final int HIT_X = 0;
+    public static final int HIT_Y = 1;
+    public static final int HIT_Z = 0;
+
+    abstract void build(VoxelBlockAccess world);
+
+    public VoxelBlockAccess create() {
+        VoxelBlockAccess world = new VoxelBlockAccess(-16, -4, -16, 33, 48, 33);
+        build(world);
+        world.updateLeafDistances(LOGS);
+        return world;
+    }
+}
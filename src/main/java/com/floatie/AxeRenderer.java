@@ -0,0 +1,177 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.Transformation;
+import org.bukkit.util.Vector;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Renders every in-flight axe from one shared task. Visuals are item displays
+ * whose teleports and spin are interpolated client-side, so they only need a
+ * server update every few ticks.
+ */
+public class AxeRenderer {
+
+    private static final float SPIN_PER_TICK = 0.6f;
+    private static final int MAX_INTERPOLATION_TICKS = 59;
+
+    private final Floatie plugin;
+    private final List<FlyingAxe> axes = new ArrayList<>();
+    private BukkitTask task;
+    private int updateInterval = 3;
+    private long ticks;
+
+    public AxeRenderer(Floatie plugin) {
+        this.plugin = plugin;
+    }
+
+    public void setUpdateInterval(int updateInterval) {
+        int maxForSpin = (int) (Math.PI / SPIN_PER_TICK);
+        this.updateInterval = Math.max(1, Math.min(Math.min(MAX_INTERPOLATION_TICKS, maxForSpin), updateInterval));
+    }
+
+    public FlyingAxe track(Entity projectile, Material axeType) {
+        return track(new EntityMotion(projectile), axeType);
+    }
+
+    public FlyingAxe track(Motion motion, Material axeType) {
+        Location location = motion.getLocation();
+        ItemDisplay display = location.getWorld().spawn(location, ItemDisplay.class);
+        display.setItemStack(new ItemStack(axeType));
+        display.setItemDisplayTransform(ItemDisplay.ItemDisplayTransform.FIXED);
+        display.setPersistent(false);
+        display.setTeleportDuration(updateInterval);
+        display.setInterpolationDuration(updateInterval);
+
+        FlyingAxe axe = new FlyingAxe(motion, display);
+        axes.add(axe);
+
+        if (task == null) {
+            ticks = 0L;
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        return axe;
+    }
+
+    public int getActiveCount() {
+        return axes.size();
+    }
+
+    public void removeAll() {
+        for (FlyingAxe axe : axes) {
+            axe.release();
+        }
+        axes.clear();
+        stop();
+    }
+
+    private void tick() {
+        boolean update = ++ticks % updateInterval == 0;
+
+        Iterator<FlyingAxe> iterator = axes.iterator();
+        while (iterator.hasNext()) {
+            FlyingAxe axe = iterator.next();
+            if (axe.released || (update && !axe.update(updateInterval))) {
+                axe.release();
+                iterator.remove();
+            }
+        }
+
+        if (axes.isEmpty()) {
+            stop();
+        }
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Position and velocity source a visual follows.
+     */
+    public interface Motion {
+        Location getLocation();
+
+        Vector getVelocity();
+
+        boolean isValid();
+    }
+
+    private record EntityMotion(Entity entity) implements Motion {
+        @Override
+        public Location getLocation() {
+            return entity.getLocation();
+        }
+
+        @Override
+        public Vector getVelocity() {
+            return entity.getVelocity();
+        }
+
+        @Override
+        public boolean isValid() {
+            return entity.isValid();
+        }
+    }
+
+    public static final class FlyingAxe {
+
+        private final Motion motion;
+        private final ItemDisplay display;
+        private boolean released;
+        private float spin;
+
+        private FlyingAxe(Motion motion, ItemDisplay display) {
+            this.motion = motion;
+            this.display = display;
+        }
+
+        /**
+         * Moves the display to where the projectile will be after
+         * {@code interval} ticks and advances its spin; the client
+         * interpolates in between.
+         */
+        boolean update(int interval) {
+            if (!motion.isValid() || !display.isValid()) {
+                return false;
+            }
+
+            Vector velocity = motion.getVelocity();
+            Location target = motion.getLocation().add(velocity.clone().multiply(interval));
+            if (velocity.lengthSquared() > 1.0E-6) {
+                target.setDirection(velocity);
+            }
+            display.teleport(target);
+
+            spin += SPIN_PER_TICK * interval;
+            display.setInterpolationDelay(0);
+            display.setTransformation(new Transformation(
+                    new Vector3f(),
+                    new Quaternionf().rotateX(spin),
+                    new Vector3f(1.0f, 1.0f, 1.0f),
+                    new Quaternionf()));
+            return true;
+        }
+
+        public void release() {
+            released = true;
+            if (display.isValid()) {
+                display.remove();
+            }
+        }
+    }
+}
@@ -2,9 +2,7 @@ package com.floatie;
 
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
-import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Snowball;
 import org.bukkit.event.EventHandler;
@@ -13,25 +11,16 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.metadata.FixedMetadataValue;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.util.EulerAngle;
-import org.bukkit.util.Vector;
-
-import java.util.EnumSet;
-import java.util.Map;
-import java.util.Set;
+
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class AxeThrowListener implements Listener {
 
-    private static final String FLOATIE_AXE_KEY = "floatie_axe";
-    private static final String AXE_TYPE_KEY = "axe_type";
-    private static final String VISUAL_STAND_KEY = "visual_stand";
-    private static final Set<Material> AXES = EnumSet.of(
+    private static final MaterialSet AXES = MaterialSet.of(
             Material.WOODEN_AXE,
             Material.STONE_AXE,
             Material.IRON_AXE,
@@ -42,18 +31,32 @@ public class AxeThrowListener implements Listener {
 
     private final Floatie plugin;
     private final BlockCleaner blockCleaner;
-    private final Map<UUID, Long> cooldowns;
-    private final Map<UUID, ArmorStand> visualStands;
+    private final CooldownStore cooldowns;
+    private final AxeRenderer axeRenderer;
+    private final VirtualProjectileEngine virtualProjectiles;
+    private final ProjectileRegistry projectileRegistry;
 
     public AxeThrowListener(Floatie plugin, BlockCleaner blockCleaner) {
         this.plugin = plugin;
         this.blockCleaner = blockCleaner;
-        this.cooldowns = new ConcurrentHashMap<>();
-        this.visualStands = new ConcurrentHashMap<>();
+        this.cooldowns = new CooldownStore();
+        this.axeRenderer = new AxeRenderer(plugin);
+        this.virtualProjectiles = new VirtualProjectileEngine(plugin, blockCleaner, axeRenderer);
+        this.projectileRegistry = new ProjectileRegistry(plugin);
+        applySettings(plugin.getSettings());
+    }
+
+    public void applySettings(FloatieSettings settings) {
+        axeRenderer.setUpdateInterval(settings.visualUpdateInterval());
     }
 
     @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
     public void onPlayerInteract(PlayerInteractEvent event) {
+        // Most interacts are not axes; reject them before touching anything else
+        if (!AXES.contains(event.getMaterial())) {
+            return;
+        }
+
         if (event.getHand() != EquipmentSlot.HAND) {
             return;
         }
@@ -68,10 +71,11 @@ public class AxeThrowListener implements Listener {
         }
 
         ItemStack item = event.getItem();
-        if (item == null || !AXES.contains(item.getType())) {
+        if (item == null) {
             return;
         }
 
+        FloatieSettings settings = plugin.getSettings();
         if (!blockCleaner.canClean()) {
             player.sendMessage(ChatColor.RED + "Server TPS too low! Axe throwing disabled.");
             return;
@@ -81,39 +85,41 @@ public class AxeThrowListener implements Listener {
             return;
         }
 
+        FellingEvents.ThrowEvent throwEvent = new FellingEvents.ThrowEvent();
+        throwEvent.begin();
+        long started = System.nanoTime();
         event.setCancelled(true);
-        throwAxe(player, item);
-        updateCooldown(player.getUniqueId());
-    }
+        throwAxe(player, item, settings);
+        cooldowns.start(player.getUniqueId(), TimeUnit.MILLISECONDS.toNanos(settings.throwCooldownMillis()));
+        plugin.getMetrics().record(FloatieMetrics.Stage.THROW, System.nanoTime() - started, 0);
 
-    @EventHandler(priority = EventPriority.NORMAL)
-    public void onProjectileHit(ProjectileHitEvent event) {
-        if (!(event.getEntity() instanceof Snowball)) {
-            return;
+        if (throwEvent.shouldCommit()) {
+            throwEvent.describe(0L, player, player.getWorld());
+            throwEvent.axe = event.getMaterial().name();
+            throwEvent.commit();
         }
+    }
 
-        Snowball snowball = (Snowball) event.getEntity();
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        cooldowns.remove(event.getPlayer().getUniqueId());
+        blockCleaner.getJobManager().removePlayer(event.getPlayer().getUniqueId());
+    }
 
-        if (!snowball.hasMetadata(FLOATIE_AXE_KEY)) {
+    @EventHandler(priority = EventPriority.NORMAL)
+    public void onProjectileHit(ProjectileHitEvent event) {
+        ProjectileRegistry.InFlightAxe axe = projectileRegistry.remove(event.getEntity());
+        if (axe == null) {
             return;
         }
 
-        if (snowball.hasMetadata(VISUAL_STAND_KEY)) {
-            UUID standId = (UUID) snowball.getMetadata(VISUAL_STAND_KEY).get(0).value();
-            ArmorStand stand = visualStands.remove(standId);
-            if (stand != null && stand.isValid()) {
-                stand.remove();
-            }
-        }
+        axe.discard();
 
-        if (event.getHitBlock() == null) {
-            snowball.remove();
-            return;
+        if (event.getHitBlock() != null) {
+            blockCleaner.cleanBlocks(event.getHitBlock(), axe.shooter());
         }
 
-        Player shooter = (Player) snowball.getShooter();
-        blockCleaner.cleanBlocks(event.getHitBlock(), shooter);
-        snowball.remove();
+        event.getEntity().remove();
     }
 
     private boolean isRightClick(Action action) {
@@ -121,89 +127,40 @@ public class AxeThrowListener implements Listener {
     }
 
     private boolean checkCooldown(Player player) {
-        long cooldownMillis = plugin.getConfig().getLong("throw-cooldown", 1) * 1000;
-        UUID playerId = player.getUniqueId();
-
-        Long lastThrow = cooldowns.get(playerId);
-        if (lastThrow == null) {
-            return true;
-        }
-
-        long elapsed = System.currentTimeMillis() - lastThrow;
-        if (elapsed >= cooldownMillis) {
+        long remainingNanos = cooldowns.remaining(player.getUniqueId());
+        if (remainingNanos == 0) {
             return true;
         }
 
-        long remainingSeconds = (cooldownMillis - elapsed) / 1000 + 1;
+        long remainingSeconds = TimeUnit.NANOSECONDS.toSeconds(remainingNanos) + 1;
         player.sendMessage(ChatColor.RED + "Wait " + remainingSeconds + "s before throwing again!");
         return false;
     }
 
-    private void updateCooldown(UUID playerId) {
-        cooldowns.put(playerId, System.currentTimeMillis());
-    }
-
-    private void throwAxe(Player player, ItemStack axe) {
-        double velocity = plugin.getConfig().getDouble("throw-velocity", 1.5);
-        boolean showVisual = plugin.getConfig().getBoolean("visual-axe", true);
+    private void throwAxe(Player player, ItemStack axe, FloatieSettings settings) {
+        double velocity = settings.throwVelocity();
+        boolean showVisual = settings.visualAxe();
 
-        Snowball projectile = player.launchProjectile(Snowball.class);
-        projectile.setVelocity(player.getLocation().getDirection().multiply(velocity));
-        projectile.setVisibleByDefault(false);
-        projectile.setMetadata(FLOATIE_AXE_KEY, new FixedMetadataValue(plugin, true));
-        projectile.setMetadata(AXE_TYPE_KEY, new FixedMetadataValue(plugin, axe.getType().name()));
-
-        if (showVisual) {
-            ArmorStand visual = createVisualAxe(projectile.getLocation(), axe.getType());
-            UUID standId = UUID.randomUUID();
-            visualStands.put(standId, visual);
-            projectile.setMetadata(VISUAL_STAND_KEY, new FixedMetadataValue(plugin, standId));
-
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    if (!projectile.isValid() || projectile.isDead()) {
-                        if (visual.isValid()) {
-                            visual.remove();
-                        }
-                        visualStands.remove(standId);
-                        cancel();
-                        return;
-                    }
-
-                    Location loc = projectile.getLocation();
-                    visual.teleport(loc);
-
-                    Vector vel = projectile.getVelocity();
-                    double pitch = Math.atan2(vel.getY(), Math.sqrt(vel.getX() * vel.getX() + vel.getZ() * vel.getZ()));
-                    visual.setHeadPose(new EulerAngle(pitch, 0, Math.PI / 4));
-                }
-            }.runTaskTimer(plugin, 0L, 1L);
+        if (settings.virtualProjectiles()) {
+            virtualProjectiles.launch(player, axe.getType(), velocity, showVisual);
+        } else {
+            launchEntity(player, axe, velocity, showVisual);
         }
 
-        if (plugin.getConfig().getBoolean("consume-axe", true)) {
+        if (settings.consumeAxe()) {
             consumeAxe(player, axe);
         }
 
         player.sendMessage(ChatColor.GREEN + "Axe thrown!");
     }
 
-    private ArmorStand createVisualAxe(Location loc, Material axeType) {
-        ArmorStand stand = loc.getWorld().spawn(loc, ArmorStand.class);
-        stand.setVisible(false);
-        stand.setGravity(false);
-        stand.setSmall(true);
-        stand.setMarker(true);
-        stand.setInvulnerable(true);
-        stand.setBasePlate(false);
-        stand.setArms(true);
-        stand.setCollidable(false);
-
-        ItemStack axeItem = new ItemStack(axeType);
-        stand.getEquipment().setHelmet(axeItem);
-        stand.setHeadPose(new EulerAngle(0, 0, Math.PI / 4));
-
-        return stand;
+    private void launchEntity(Player player, ItemStack axe, double velocity, boolean showVisual) {
+        Snowball projectile = player.launchProjectile(Snowball.class);
+        projectile.setVelocity(player.getLocation().getDirection().multiply(velocity));
+        projectile.setVisibleByDefault(false);
+
+        AxeRenderer.FlyingAxe visual = showVisual ? axeRenderer.track(projectile, axe.getType()) : null;
+        projectileRegistry.register(projectile, player, axe.getType(), visual);
     }
 
     private void consumeAxe(Player player, ItemStack axe) {
@@ -227,12 +184,9 @@ public class AxeThrowListener implements Listener {
     }
 
     public void cleanup() {
-        for (ArmorStand stand : visualStands.values()) {
-            if (stand.isValid()) {
-                stand.remove();
-            }
-        }
-        visualStands.clear();
+        virtualProjectiles.clear();
+        projectileRegistry.clear();
+        axeRenderer.removeAll();
         cooldowns.clear();
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.floatie;
+
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.World;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Coalesces break effects for one removal batch: one sound at the batch
+ * centroid and a capped, reservoir-sampled set of particle bursts.
+ */
+public class BatchEffects {
+
+    private final World world;
+    private final Particle particle;
+    private final int maxBursts;
+    private final int[] sampleX;
+    private final int[] sampleY;
+    private final int[] sampleZ;
+    private int count;
+    private long sumX;
+    private long sumY;
+    private long sumZ;
+    private int minX;
+    private int minY;
+    private int minZ;
+    private int maxX;
+    private int maxY;
+    private int maxZ;
+
+    public BatchEffects(World world, Particle particle, int maxBursts) {
+        this.world = world;
+        this.particle = particle;
+        this.maxBursts = Math.max(0, maxBursts);
+        this.sampleX = new int[this.maxBursts];
+        this.sampleY = new int[this.maxBursts];
+        this.sampleZ = new int[this.maxBursts];
+    }
+
+    public void record(int x, int y, int z) {
+        if (count == 0) {
+            minX = maxX = x;
+            minY = maxY = y;
+            minZ = maxZ = z;
+        } else {
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+
+        int slot = count < maxBursts ? count : ThreadLocalRandom.current().nextInt(count + 1);
+        if (slot < maxBursts) {
+            sampleX[slot] = x;
+            sampleY[slot] = y;
+            sampleZ[slot] = z;
+        }
+
+        sumX += x;
+        sumY += y;
+        sumZ += z;
+        count++;
+    }
+
+    public void flush() {
+        if (count == 0) {
+            return;
+        }
+
+        double centerX = (double) sumX / count + 0.5;
+        double centerY = (double) sumY / count + 0.5;
+        double centerZ = (double) sumZ / count + 0.5;
+        world.playSound(new Location(world, centerX, centerY, centerZ), Sound.BLOCK_WOOD_BREAK, 0.7f, 1.0f);
+
+        int bursts = Math.min(count, maxBursts);
+        int particlesPerBurst = Math.min(20, Math.max(4, count / Math.max(1, bursts) * 2));
+        double spreadX = Math.min(2.0, (maxX - minX + 1) / (2.0 * Math.max(1, bursts)));
+        double spreadY = Math.min(2.0, (maxY - minY + 1) / (2.0 * Math.max(1, bursts)));
+        double spreadZ = Math.min(2.0, (maxZ - minZ + 1) / (2.0 * Math.max(1, bursts)));
+
+        for (int i = 0; i < bursts; i++) {
+            world.spawnParticle(particle, sampleX[i] + 0.5, sampleY[i] + 0.5, sampleZ[i] + 0.5, particlesPerBurst,
+                    Math.max(0.25, spreadX), Math.max(0.25, spreadY), Math.max(0.25, spreadZ), 0.05);
+        }
+
+        count = 0;
+        sumX = sumY = sumZ = 0L;
+    }
+}
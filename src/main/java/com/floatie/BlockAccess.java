@@ -0,0 +1,25 @@
+package com.floatie;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Leaves;
+
+public interface BlockAccess {
+
+    /**
+     * Returns the material at the given position, or {@code null} when the
+     * position is not available (unloaded or not captured).
+     */
+    Material getType(int x, int y, int z);
+
+    /**
+     * Returns the {@code distance} of the leaves at the given position, 1 to 7
+     * steps from the nearest log, or 0 for persistent leaves, other blocks and
+     * positions that are not available.
+     */
+    int getLeafDistance(int x, int y, int z);
+
+    static int leafDistance(BlockData data) {
+        return data instanceof Leaves leaves && !leaves.isPersistent() ? leaves.getDistance() : 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.floatie;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Blocks owned by active removal jobs, as packed keys per world. A hit on a
+ * tree that is already falling joins the owning job instead of scanning it
+ * again, and discovery stops at blocks another job owns. Main thread only.
+ */
+public class BlockClaims {
+
+    private final Map<String, LongObjectMap<RemovalJob>> worlds = new HashMap<>();
+
+    public RemovalJob ownerOf(String worldName, long key) {
+        LongObjectMap<RemovalJob> claims = worlds.get(worldName);
+        return claims != null ? claims.get(key) : null;
+    }
+
+    public boolean isClaimed(String worldName, long key) {
+        return ownerOf(worldName, key) != null;
+    }
+
+    /**
+     * Whether all six neighbours of the block belong to the job, removed or
+     * not. Claims say nothing about what the blocks are now, so callers check
+     * the neighbours themselves as well.
+     */
+    boolean isInterior(RemovalJob job, int x, int y, int z) {
+        LongObjectMap<RemovalJob> claims = worlds.get(job.getWorld().getName());
+        return claims != null
+                && claims.get(BlockKey.pack(x + 1, y, z)) == job
+                && claims.get(BlockKey.pack(x - 1, y, z)) == job
+                && claims.get(BlockKey.pack(x, y + 1, z)) == job
+                && claims.get(BlockKey.pack(x, y - 1, z)) == job
+                && claims.get(BlockKey.pack(x, y, z + 1)) == job
+                && claims.get(BlockKey.pack(x, y, z - 1)) == job;
+    }
+
+    /**
+     * Copies the keys claimed in the world, for a search that runs off the
+     * main thread and cannot read the claims themselves.
+     */
+    LongHashSet snapshot(String worldName) {
+        LongObjectMap<RemovalJob> claims = worlds.get(worldName);
+        if (claims == null) {
+            return new LongHashSet(4);
+        }
+
+        LongHashSet keys = new LongHashSet(claims.size());
+        claims.forEachKey(keys::add);
+        return keys;
+    }
+
+    void claim(String worldName, long key, RemovalJob job) {
+        worlds.computeIfAbsent(worldName, name -> new LongObjectMap<>(256)).put(key, job);
+    }
+
+    void release(RemovalJob job) {
+        String worldName = job.getWorld().getName();
+        LongObjectMap<RemovalJob> claims = worlds.get(worldName);
+        if (claims == null) {
+            return;
+        }
+
+        job.forEachKey(key -> {
+            if (claims.get(key) == job) {
+                claims.remove(key);
+            }
+        });
+
+        if (claims.isEmpty()) {
+            worlds.remove(worldName);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (LongObjectMap<RemovalJob> claims : worlds.values()) {
+            size += claims.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+}
@@ -3,363 +3,445 @@ package com.floatie;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
-
-import java.util.*;
 
 public class BlockCleaner {
 
-    private static final Set<Material> LEAF_TYPES = EnumSet.of(
+    static final MaterialSet LEAF_TYPES = MaterialSet.of(
             Material.OAK_LEAVES, Material.SPRUCE_LEAVES, Material.BIRCH_LEAVES,
             Material.JUNGLE_LEAVES, Material.ACACIA_LEAVES, Material.DARK_OAK_LEAVES,
             Material.MANGROVE_LEAVES, Material.CHERRY_LEAVES, Material.AZALEA_LEAVES,
             Material.FLOWERING_AZALEA_LEAVES
     );
 
-    private static final int[][] DIRECT_NEIGHBORS = {
-            {1, 0, 0}, {-1, 0, 0},
-            {0, 1, 0}, {0, -1, 0},
-            {0, 0, 1}, {0, 0, -1}
-    };
+    /**
+     * Blocks that hold up leaves, the game's {@code #logs} tag.
+     */
+    static final MaterialSet LOG_TYPES = MaterialSet.of(
+            Material.OAK_LOG, Material.OAK_WOOD, Material.STRIPPED_OAK_LOG, Material.STRIPPED_OAK_WOOD,
+            Material.SPRUCE_LOG, Material.SPRUCE_WOOD, Material.STRIPPED_SPRUCE_LOG, Material.STRIPPED_SPRUCE_WOOD,
+            Material.BIRCH_LOG, Material.BIRCH_WOOD, Material.STRIPPED_BIRCH_LOG, Material.STRIPPED_BIRCH_WOOD,
+            Material.JUNGLE_LOG, Material.JUNGLE_WOOD, Material.STRIPPED_JUNGLE_LOG, Material.STRIPPED_JUNGLE_WOOD,
+            Material.ACACIA_LOG, Material.ACACIA_WOOD, Material.STRIPPED_ACACIA_LOG, Material.STRIPPED_ACACIA_WOOD,
+            Material.DARK_OAK_LOG, Material.DARK_OAK_WOOD, Material.STRIPPED_DARK_OAK_LOG, Material.STRIPPED_DARK_OAK_WOOD,
+            Material.MANGROVE_LOG, Material.MANGROVE_WOOD, Material.STRIPPED_MANGROVE_LOG, Material.STRIPPED_MANGROVE_WOOD,
+            Material.CHERRY_LOG, Material.CHERRY_WOOD, Material.STRIPPED_CHERRY_LOG, Material.STRIPPED_CHERRY_WOOD,
+            Material.CRIMSON_STEM, Material.CRIMSON_HYPHAE, Material.STRIPPED_CRIMSON_STEM, Material.STRIPPED_CRIMSON_HYPHAE,
+            Material.WARPED_STEM, Material.WARPED_HYPHAE, Material.STRIPPED_WARPED_STEM, Material.STRIPPED_WARPED_HYPHAE
+    );
 
     private final Floatie plugin;
     private final ProtectionManager protectionManager;
-    private Set<Material> cleanableBlocks;
-    private int maxBlocks;
-    private boolean dropItems;
-    private int blocksPerTick;
-    private long removalDelayTicks;
-    private boolean effectsEnabled;
-    private Particle particleType;
-    private boolean animatedRemoval;
-    private int leafSearchRadius;
-    private double minTPS;
-    private boolean tpsCheckEnabled;
-    private int maxChunkLoadRadius;
+    private final RemovalScheduler removalScheduler;
+    private final RemovalRateController rateController;
+    private final FellingJobManager jobManager;
+    private final BlockClaims blockClaims;
+    private final TreeIndex treeIndex;
+    private final UndoJournal undoJournal;
 
     public BlockCleaner(Floatie plugin) {
         this.plugin = plugin;
         this.protectionManager = new ProtectionManager(plugin);
-        loadSettings();
+        this.removalScheduler = new RemovalScheduler(plugin, this);
+        this.rateController = new RemovalRateController(plugin.getTickMonitor());
+        this.jobManager = new FellingJobManager(plugin, this);
+        this.blockClaims = new BlockClaims();
+        this.treeIndex = new TreeIndex(plugin);
+        this.undoJournal = new UndoJournal(plugin, this);
+        applySettings(plugin.getSettings());
     }
 
-    public void loadSettings() {
-        cleanableBlocks = loadCleanableBlocks();
-        maxBlocks = plugin.getConfig().getInt("max-blocks", 500);
-        dropItems = plugin.getConfig().getBoolean("drop-items", true);
-        blocksPerTick = plugin.getConfig().getInt("performance.blocks-per-tick", 100);
-        removalDelayTicks = Math.max(1L, plugin.getConfig().getInt("performance.removal-delay", 1));
-        effectsEnabled = plugin.getConfig().getBoolean("effects.enabled", false);
-        particleType = loadParticleType();
-        animatedRemoval = plugin.getConfig().getBoolean("animated-removal", true);
-        leafSearchRadius = plugin.getConfig().getInt("leaf-search-radius", 6);
-        minTPS = plugin.getConfig().getDouble("performance.min-tps", 15.0);
-        tpsCheckEnabled = plugin.getConfig().getBoolean("performance.tps-check-enabled", true);
-        maxChunkLoadRadius = plugin.getConfig().getInt("performance.max-chunk-load-radius", 5);
-    }
+    public void applySettings(FloatieSettings settings) {
+        removalScheduler.setTickBudgetNanos(settings.tickBudgetNanos());
+        protectionManager.setCacheTicks(settings.protectionCacheTicks());
+        jobManager.configure(settings.jobLimits());
+        removalScheduler.setServerLimiter(jobManager.getServerLimiter());
+        treeIndex.configure(settings.treeIndex(), settings.cleanableBlocks());
+        undoJournal.configure(settings.undoJournal(), settings.tickBudgetNanos());
+
+        FloatieSettings.AdaptiveRemoval adaptive = settings.adaptiveRemoval();
+        if (adaptive == null) {
+            removalScheduler.setRateController(null);
+            return;
+        }
 
-    private Set<Material> loadCleanableBlocks() {
-        Set<Material> blocks = EnumSet.noneOf(Material.class);
-        List<String> configBlocks = plugin.getConfig().getStringList("cleanable-blocks");
+        rateController.configure(adaptive.minBlocksPerTick(), adaptive.maxBlocksPerTick(), adaptive.increasePerTick(),
+                adaptive.backoffFactor(), adaptive.maxMspt(), adaptive.pauseMspt());
+        removalScheduler.setRateController(rateController);
+    }
 
-        for (String blockName : configBlocks) {
-            try {
-                blocks.add(Material.valueOf(blockName.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                plugin.getLogger().warning("Invalid block type: " + blockName);
-            }
+    public boolean canClean() {
+        FloatieSettings settings = plugin.getSettings();
+        if (!settings.tpsCheckEnabled()) {
+            return true;
         }
+        return plugin.getTickMonitor().getTps1m() >= settings.minTps();
+    }
 
-        return blocks.isEmpty() ? EnumSet.of(Material.OAK_LOG) : blocks;
+    public void shutdown() {
+        jobManager.clear();
+        removalScheduler.cancelAll();
+        undoJournal.close();
     }
 
-    private Particle loadParticleType() {
-        try {
-            String particleName = plugin.getConfig().getString("effects.particle-type", "CLOUD");
-            return Particle.valueOf(particleName.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().warning("Invalid particle type, using CLOUD");
-            return Particle.CLOUD;
-        }
+    public RemovalScheduler getRemovalScheduler() {
+        return removalScheduler;
     }
 
-    public boolean canClean() {
-        if (!tpsCheckEnabled) {
-            return true;
-        }
-        return getCurrentTPS() >= minTPS;
+    public FellingJobManager getJobManager() {
+        return jobManager;
     }
 
-    public double getCurrentTPS() {
-        try {
-            Object server = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
-            Object tickTimes = server.getClass().getField("recentTps").get(server);
-            return ((double[]) tickTimes)[0];
-        } catch (Exception e) {
-            return 20.0;
-        }
+    public BlockClaims getBlockClaims() {
+        return blockClaims;
+    }
+
+    public TreeIndex getTreeIndex() {
+        return treeIndex;
+    }
+
+    public UndoJournal getUndoJournal() {
+        return undoJournal;
     }
 
     public void cleanBlocks(Block hitBlock, Player player) {
-        if (!cleanableBlocks.contains(hitBlock.getType())) {
+        if (!plugin.getSettings().cleanableBlocks().contains(hitBlock.getType())) {
             return;
         }
 
         if (!canClean()) {
+            recordHit(hitBlock, player, 0L, "low-tps");
             if (player != null) {
                 player.sendMessage(ChatColor.RED + "Server TPS too low! Tree chopping disabled.");
             }
             return;
         }
 
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            if (!protectionManager.canBreak(player, hitBlock.getLocation())) {
-                if (player != null) {
-                    player.sendMessage(ChatColor.RED + "You cannot break blocks in this area!");
-                }
-                return;
-            }
-
-            List<BlockSnapshot> snapshots = new ArrayList<>();
-            Set<Long> visited = new HashSet<>();
-
-            List<Block> logs = findConnectedLogs(hitBlock, player, visited);
-            if (logs.isEmpty()) {
-                return;
-            }
-
-            for (Block log : logs) {
-                if (snapshots.size() >= maxBlocks) break;
-                snapshots.add(createSnapshot(log));
-            }
+        RemovalJob owner = fallingJob(hitBlock);
+        if (owner != null) {
+            recordHit(hitBlock, player, owner.getId(), "joined");
+            return;
+        }
 
-            List<Block> leaves = findAttachedLeaves(logs, player, visited);
-            for (Block leaf : leaves) {
-                if (snapshots.size() >= maxBlocks) break;
-                snapshots.add(createSnapshot(leaf));
+        if (jobManager.submit(hitBlock, player)) {
+            recordHit(hitBlock, player, 0L, "queued");
+        } else {
+            recordHit(hitBlock, player, 0L, "rejected");
+            if (player != null) {
+                player.sendMessage(ChatColor.RED + "Too many trees are falling right now, try again shortly!");
             }
+        }
+    }
 
-            if (animatedRemoval) {
-                removeBlocksAnimated(snapshots, logs.get(0).getY());
-            } else {
-                removeBlocksImmediate(snapshots);
-            }
-        });
+    /**
+     * @param jobId the job the hit joined, or 0 when it joined none
+     */
+    private void recordHit(Block hitBlock, Player player, long jobId, String outcome) {
+        FellingEvents.HitEvent event = new FellingEvents.HitEvent();
+        if (event.shouldCommit()) {
+            event.describe(jobId, player, hitBlock.getWorld());
+            event.x = hitBlock.getX();
+            event.y = hitBlock.getY();
+            event.z = hitBlock.getZ();
+            event.outcome = outcome;
+            event.commit();
+        }
     }
 
-    private List<Block> findConnectedLogs(Block startBlock, Player player, Set<Long> visited) {
-        List<Block> connected = new ArrayList<>();
-        Deque<Block> queue = new ArrayDeque<>();
+    /**
+     * Returns the running job the block already belongs to, in which case the
+     * hit simply joins that job, or {@code null}.
+     */
+    private RemovalJob fallingJob(Block block) {
+        return blockClaims.ownerOf(block.getWorld().getName(), BlockKey.pack(block.getX(), block.getY(), block.getZ()));
+    }
 
-        Material targetMaterial = startBlock.getType();
-        queue.add(startBlock);
-        visited.add(blockKey(startBlock));
+    /**
+     * Runs discovery for a hit admitted by the job manager. With async
+     * discovery the job is submitted straight away and fed while the search
+     * runs, so the manager sees it as running either way.
+     */
+    void startJob(Block hitBlock, Player player) {
+        try {
+            if (fallingJob(hitBlock) != null) {
+                return;
+            }
 
-        Location centerLoc = startBlock.getLocation();
+            long protectionStarted = System.nanoTime();
+            boolean allowed = protectionManager.canBreak(player, hitBlock.getLocation());
+            plugin.getMetrics().record(FloatieMetrics.Stage.PROTECTION, System.nanoTime() - protectionStarted, 1);
+            if (!allowed) {
+                if (player != null) {
+                    player.sendMessage(ChatColor.RED + "You cannot break blocks in this area!");
+                }
+                return;
+            }
 
-        while (!queue.isEmpty() && connected.size() < maxBlocks) {
-            Block current = queue.poll();
+            World world = hitBlock.getWorld();
+            FloatieSettings settings = plugin.getSettings();
+            long[] indexedLogs = treeIndex.lookup(hitBlock, settings.maxBlocks(), settings.maxChunkLoadRadius() * 16);
 
-            if (centerLoc.distance(current.getLocation()) > maxChunkLoadRadius * 16) {
-                continue;
+            if (settings.asyncDiscovery()) {
+                discoverAsync(world, hitBlock, player, settings, indexedLogs);
+                return;
             }
 
-            if (!current.getChunk().isLoaded()) {
-                continue;
+            FellingEvents.DiscoveryEvent event = new FellingEvents.DiscoveryEvent();
+            event.begin();
+            TreeScanner scanner = TreeScanner.get();
+            TreeScanner.ScanResult result;
+            if (indexedLogs != null) {
+                result = scanner.scanLeaves(new LiveBlockAccess(world), null, null,
+                        indexedLogs, hitBlock.getType(), hitBlock.getX(), hitBlock.getY(), hitBlock.getZ(),
+                        settings.maxBlocks(), settings.leafSearchRadius(), settings.maxChunkLoadRadius() * 16);
+            } else {
+                String worldName = world.getName();
+                result = scanner.scan(new LiveBlockAccess(world),
+                        (x, y, z) -> !blockClaims.isClaimed(worldName, BlockKey.pack(x, y, z)),
+                        hitBlock.getX(), hitBlock.getY(), hitBlock.getZ(),
+                        settings.maxBlocks(), settings.leafSearchRadius(), settings.maxChunkLoadRadius() * 16);
             }
+            event.end();
 
-            if (!protectionManager.canBreak(player, current.getLocation())) {
-                continue;
+            if (result.isEmpty()) {
+                recordDiscovery(event, 0L, player, world, scanner.getLastTimings(), indexedLogs != null);
+                return;
             }
 
-            connected.add(current);
-
-            for (int[] dir : DIRECT_NEIGHBORS) {
-                Block neighbor = current.getRelative(dir[0], dir[1], dir[2]);
-
-                if (neighbor.getType() != targetMaterial) {
-                    continue;
-                }
+            // Protection is checked in bulk once the tree is known, which lets hooks answer per chunk
+            RemovalJob job = createJob(world, hitBlock, player, null, settings);
+            recordDiscovery(event, job.getId(), player, world, scanner.getLastTimings(), indexedLogs != null);
+            admit(job, player, result.logs(), null, result.logType(), true, settings.maxBlocks());
+            admit(job, player, result.leaves(), result.leafTypes(), null, true, settings.maxBlocks());
+            removalScheduler.submit(job);
+        } finally {
+            jobManager.discoveryFinished();
+        }
+    }
 
-                long key = blockKey(neighbor);
-                if (visited.add(key)) {
-                    queue.add(neighbor);
+    /**
+     * @param indexedLogs the tree's logs when the index already knows them, in
+     *                    which case only leaves are searched
+     */
+    private void discoverAsync(World world, Block hitBlock, Player player, FloatieSettings settings, long[] indexedLogs) {
+        int x = hitBlock.getX();
+        int y = hitBlock.getY();
+        int z = hitBlock.getZ();
+        Material logType = hitBlock.getType();
+        int radius = settings.maxChunkLoadRadius();
+        SnapshotBlockAccess access = SnapshotBlockAccess.capture(world, x, z, radius);
+        LongHashSet claimed = blockClaims.snapshot(world.getName());
+        TreeScanner.BlockFilter unclaimed = (bx, by, bz) -> !claimed.contains(BlockKey.pack(bx, by, bz));
+
+        DiscoveryStream stream = new DiscoveryStream(world, player, settings.maxBlocks());
+        RemovalJob job = createJob(world, hitBlock, player, stream, settings);
+        removalScheduler.submit(job);
+
+        // The job counts as running until its stream finishes, so every path out must finish it
+        Runnable search = () -> {
+            try {
+                FellingEvents.DiscoveryEvent event = new FellingEvents.DiscoveryEvent();
+                event.begin();
+                TreeScanner scanner = TreeScanner.get();
+                if (indexedLogs != null) {
+                    scanner.scanLeaves(access, unclaimed, stream, indexedLogs, logType, x, y, z,
+                            settings.maxBlocks(), settings.leafSearchRadius(), radius * 16);
+                } else {
+                    scanner.scan(access, unclaimed, stream, x, y, z,
+                            settings.maxBlocks(), settings.leafSearchRadius(), radius * 16);
                 }
+                event.end();
+                recordDiscovery(event, job.getId(), player, world, scanner.getLastTimings(), indexedLogs != null);
+            } finally {
+                stream.finish();
             }
-        }
+        };
 
-        return connected;
+        try {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, search);
+        } catch (RuntimeException e) {
+            // The plugin is being disabled; the job removes nothing and completes
+            stream.finish();
+            throw e;
+        }
     }
 
-    private List<Block> findAttachedLeaves(List<Block> logBlocks, Player player, Set<Long> visited) {
-        if (logBlocks.isEmpty()) {
-            return Collections.emptyList();
+    /**
+     * On the synchronous path the log phase includes the per-block claim
+     * checks made by the scan filter.
+     *
+     * @param jobId the job the blocks went to, or 0 when nothing was found
+     */
+    private void recordDiscovery(FellingEvents.DiscoveryEvent event, long jobId, Player player, World world,
+                                 TreeScanner.ScanTimings timings, boolean indexed) {
+        FloatieMetrics metrics = plugin.getMetrics();
+        metrics.record(FloatieMetrics.Stage.LOG_DISCOVERY, timings.logNanos(), timings.logs());
+        metrics.record(FloatieMetrics.Stage.LEAF_DISCOVERY, timings.leafNanos(), timings.leaves());
+
+        if (event.shouldCommit()) {
+            event.describe(jobId, player, world);
+            event.logs = timings.logs();
+            event.leaves = timings.leaves();
+            event.logTime = timings.logNanos();
+            event.leafTime = timings.leafNanos();
+            event.indexed = indexed;
+            event.commit();
         }
+    }
 
-        List<Block> leaves = new ArrayList<>();
-        Deque<Block> queue = new ArrayDeque<>();
-        Location centerLoc = logBlocks.get(0).getLocation();
-
-        for (Block log : logBlocks) {
-            scanForLeaves(log, queue, visited, leafSearchRadius, centerLoc);
-            if (leaves.size() >= maxBlocks) break;
+    private RemovalJob createJob(World world, Block hitBlock, Player player, DiscoveryStream stream, FloatieSettings settings) {
+        DropAggregator drops = null;
+        if (settings.dropItems() && settings.dropMode() != DropAggregator.Mode.PER_BLOCK) {
+            drops = new DropAggregator(settings.dropMode(), hitBlock.getLocation().add(0.5, 0.5, 0.5), player);
         }
 
-        while (!queue.isEmpty() && leaves.size() < maxBlocks) {
-            Block current = queue.poll();
+        BatchEffects effects = settings.effectsEnabled()
+                ? new BatchEffects(world, settings.particleType(), settings.maxParticleBursts())
+                : null;
+        TokenBucket limiter = jobManager.limiterFor(player);
+        JournalRecorder journal = undoJournal.isEnabled() ? new JournalRecorder() : null;
 
-            if (!protectionManager.canBreak(player, current.getLocation())) {
-                continue;
-            }
-
-            leaves.add(current);
-            scanForLeaves(current, queue, visited, 1, centerLoc);
+        // Adaptive mode and immediate removal leave pacing to the scheduler
+        if (settings.animatedRemoval() && removalScheduler.getRateController() == null) {
+            return new RemovalJob(world, player, stream, settings.blocksPerTick(), settings.removalDelayTicks(), drops, effects, limiter, journal);
         }
-
-        return leaves;
+        return new RemovalJob(world, player, stream, 0, 1L, drops, effects, limiter, journal);
     }
 
-    private void scanForLeaves(Block center, Deque<Block> queue, Set<Long> visited, int radius, Location origin) {
-        for (int[] dir : DIRECT_NEIGHBORS) {
-            for (int dist = 1; dist <= radius; dist++) {
-                Block neighbor = center.getRelative(dir[0] * dist, dir[1] * dist, dir[2] * dist);
-
-                if (origin.distance(neighbor.getLocation()) > maxChunkLoadRadius * 16) {
-                    break;
-                }
-
-                if (!neighbor.getChunk().isLoaded()) {
-                    break;
-                }
-
-                if (!LEAF_TYPES.contains(neighbor.getType())) {
-                    break;
-                }
+    /**
+     * Moves blocks the async search has found so far into the job. Called by
+     * the scheduler at the start of every tick.
+     */
+    void admitDiscovered(RemovalJob job) {
+        DiscoveryStream stream = job.getStream();
+        if (stream == null) {
+            return;
+        }
 
-                long key = blockKey(neighbor);
-                if (visited.add(key)) {
-                    queue.add(neighbor);
-                }
-            }
+        DiscoveryStream.Batch batch;
+        while ((batch = stream.poll()) != null) {
+            admit(job, stream.getPlayer(), batch.keys(), batch.leaves() ? batch.types() : null,
+                    batch.leaves() ? null : batch.types()[0], true, stream.getMaxBlocks());
         }
     }
 
-    private void removeBlocksAnimated(List<BlockSnapshot> snapshots, int lowestY) {
-        snapshots.sort((s1, s2) -> {
-            boolean s1IsLeaf = LEAF_TYPES.contains(s1.type);
-            boolean s2IsLeaf = LEAF_TYPES.contains(s2.type);
-
-            if (s1IsLeaf != s2IsLeaf) {
-                return s1IsLeaf ? -1 : 1;
-            }
-
-            int yDiff1 = Math.abs(s1.y - lowestY);
-            int yDiff2 = Math.abs(s2.y - lowestY);
-            return Integer.compare(yDiff1, yDiff2);
-        });
-
-        new BukkitRunnable() {
-            private int index = 0;
-
-            @Override
-            public void run() {
-                if (!canClean()) {
-                    cancel();
-                    return;
-                }
-
-                int toProcess = Math.min(blocksPerTick, snapshots.size() - index);
-
-                if (toProcess <= 0) {
-                    cancel();
-                    return;
-                }
-
-                List<BlockSnapshot> batch = snapshots.subList(index, index + toProcess);
-                index += toProcess;
-
-                processBatch(batch);
-
-                if (index >= snapshots.size()) {
-                    cancel();
+    /**
+     * Adds blocks to the job and claims them, skipping blocks that are
+     * protected, owned by another job or beyond max-blocks.
+     *
+     * @param leafTypes the type of each leaf, or {@code null} for logs of {@code logType}
+     */
+    private void admit(RemovalJob job, Player player, long[] keys, Material[] leafTypes, Material logType,
+                       boolean checkProtection, int maxBlocks) {
+        World world = job.getWorld();
+        String worldName = world.getName();
+        boolean[] allowed = null;
+        if (checkProtection) {
+            long started = System.nanoTime();
+            FellingEvents.ProtectionEvent event = new FellingEvents.ProtectionEvent();
+            event.begin();
+            allowed = protectionManager.canBreakAll(player, world, keys);
+            event.end();
+            plugin.getMetrics().record(FloatieMetrics.Stage.PROTECTION, System.nanoTime() - started, keys.length);
+
+            if (event.shouldCommit()) {
+                int denied = 0;
+                for (boolean allow : allowed) {
+                    if (!allow) {
+                        denied++;
+                    }
                 }
+                event.describe(job.getId(), player, world);
+                event.blocks = keys.length;
+                event.denied = denied;
+                event.commit();
             }
-        }.runTaskTimer(plugin, 0L, removalDelayTicks);
-    }
-
-    private void removeBlocksImmediate(List<BlockSnapshot> snapshots) {
-        processBatch(snapshots);
-    }
+        }
+        boolean leaves = leafTypes != null;
+        DropAggregator drops = job.getDrops();
 
-    private void processBatch(List<BlockSnapshot> batch) {
-        for (BlockSnapshot snapshot : batch) {
-            World world = Bukkit.getWorld(snapshot.worldName);
-            if (world == null) {
+        for (int i = 0; i < keys.length && job.getBlockCount() < maxBlocks; i++) {
+            long key = keys[i];
+            // Async discovery sees claims as of its start, so blocks taken since are dropped here
+            if ((allowed != null && !allowed[i]) || blockClaims.isClaimed(worldName, key)) {
                 continue;
             }
 
-            Block block = world.getBlockAt(snapshot.x, snapshot.y, snapshot.z);
+            Material type = leaves ? leafTypes[i] : logType;
+            blockClaims.claim(worldName, key, job);
+            job.add(key, type, leaves);
 
-            if (block.getType() != snapshot.type) {
-                continue;
+            if (!leaves && drops != null) {
+                drops.lowerStump(key);
             }
-
-            if (!cleanableBlocks.contains(block.getType()) && !LEAF_TYPES.contains(block.getType())) {
-                continue;
-            }
-
-            removeBlock(block, snapshot.type);
         }
     }
 
-    private void removeBlock(Block block, Material originalType) {
-        Location loc = block.getLocation().add(0.5, 0.5, 0.5);
+    void removeQueued(RemovalJob job, long key, Material type) {
+        Block block = job.getWorld().getBlockAt(BlockKey.x(key), BlockKey.y(key), BlockKey.z(key));
 
-        if (dropItems) {
-            block.getDrops().forEach(drop -> block.getWorld().dropItemNaturally(loc, drop));
+        if (block.getType() != type) {
+            return;
         }
 
-        block.setType(Material.AIR, true);
-
-        if (effectsEnabled) {
-            spawnBreakEffect(loc, originalType);
-            playBreakSound(loc);
+        if (!isRemovable(block.getType())) {
+            return;
         }
+
+        removeBlock(block, job);
     }
 
-    private void spawnBreakEffect(Location loc, Material blockType) {
-        World world = loc.getWorld();
-        if (world == null) {
-            return;
+    private boolean isRemovable(Material type) {
+        return plugin.getSettings().cleanableBlocks().contains(type) || LEAF_TYPES.contains(type);
+    }
+
+    /**
+     * Whether the block is surrounded by its own tree: every neighbour is
+     * claimed by the job and is either gone or still a block the job will
+     * remove. A claimed neighbour that has become something else is skipped by
+     * the job, so it must still get an update.
+     */
+    private boolean isInterior(RemovalJob job, Block block) {
+        if (!blockClaims.isInterior(job, block.getX(), block.getY(), block.getZ())) {
+            return false;
         }
 
-        world.spawnParticle(particleType, loc, 10, 0.25, 0.25, 0.25, 0.05);
+        for (int[] dir : BlockKey.DIRECT_NEIGHBORS) {
+            Material type = block.getRelative(dir[0], dir[1], dir[2]).getType();
+            if (!type.isAir() && !isRemovable(type)) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void playBreakSound(Location loc) {
-        World world = loc.getWorld();
-        if (world == null) {
-            return;
+    private void removeBlock(Block block, RemovalJob job) {
+        JournalRecorder journal = job.getJournal();
+        if (journal != null) {
+            journal.record(BlockKey.pack(block.getX(), block.getY(), block.getZ()), block.getBlockData());
         }
 
-        world.playSound(loc, Sound.BLOCK_WOOD_BREAK, 0.7f, 1.0f);
-    }
+        DropAggregator drops = job.getDrops();
+        if (drops != null) {
+            drops.add(block.getDrops());
+        } else if (plugin.getSettings().dropItems()) {
+            Location loc = block.getLocation().add(0.5, 0.5, 0.5);
+            block.getDrops().forEach(drop -> block.getWorld().dropItemNaturally(loc, drop));
+        }
 
-    private BlockSnapshot createSnapshot(Block block) {
-        return new BlockSnapshot(
-                block.getWorld().getName(),
-                block.getX(),
-                block.getY(),
-                block.getZ(),
-                block.getType()
-        );
-    }
+        if (!plugin.getSettings().deferredPhysics()) {
+            block.setType(Material.AIR, true);
+        } else if (isInterior(job, block)) {
+            // Every neighbour is part of this tree, so nothing outside needs to hear about it
+            block.setType(Material.AIR, false);
+            job.clearedInterior(BlockKey.pack(block.getX(), block.getY(), block.getZ()));
+        } else {
+            job.deferBoundary(BlockKey.pack(block.getX(), block.getY(), block.getZ()));
+        }
+        treeIndex.blockRemoved(block);
 
-    private long blockKey(Block block) {
-        return ((long) block.getX() & 0x7FFFFFF) |
-                (((long) block.getY() & 0xFFF) << 27) |
-                (((long) block.getZ() & 0x7FFFFFF) << 39);
+        BatchEffects effects = job.getEffects();
+        if (effects != null) {
+            effects.record(block.getX(), block.getY(), block.getZ());
+        }
     }
-
-    private record BlockSnapshot(String worldName, int x, int y, int z, Material type) {}
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.floatie;
+
+/**
+ * Packs block coordinates into a single long: 26 bits of X, 26 bits of Z and
+ * 12 bits of Y, all sign-extended on unpack so negative coordinates never collide.
+ */
+public final class BlockKey {
+
+    /**
+     * Offsets of the six blocks sharing a face with a block. Read only.
+     */
+    static final int[][] DIRECT_NEIGHBORS = {
+            {1, 0, 0}, {-1, 0, 0},
+            {0, 1, 0}, {0, -1, 0},
+            {0, 0, 1}, {0, 0, -1}
+    };
+
+    private BlockKey() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return (((long) x & 0x3FFFFFFL) << 38) | (((long) z & 0x3FFFFFFL) << 12) | ((long) y & 0xFFFL);
+    }
+
+    public static int x(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int y(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int z(long key) {
+        return (int) (key << 26 >> 38);
+    }
+}
@@ -0,0 +1,124 @@
+package com.floatie;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-player cooldowns on the monotonic clock. Expired entries are evicted by a
+ * coarse timing wheel that is advanced lazily on access, so the store only holds
+ * players with a running cooldown and never needs a background sweep.
+ * Main thread only.
+ */
+public class CooldownStore {
+
+    private static final long SLOT_NANOS = 50_000_000L;
+    private static final int SLOTS = 128;
+    private static final int MASK = SLOTS - 1;
+
+    private final LongSupplier clock;
+    private final Map<UUID, Long> expiries = new HashMap<>();
+    private final List<List<UUID>> wheel = new ArrayList<>(SLOTS);
+    private long cursor;
+
+    public CooldownStore() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosecond time source, replaced in tests
+     */
+    CooldownStore(LongSupplier clock) {
+        this.clock = clock;
+        for (int i = 0; i < SLOTS; i++) {
+            wheel.add(new ArrayList<>());
+        }
+        cursor = clock.getAsLong() / SLOT_NANOS;
+    }
+
+    /**
+     * Returns the remaining cooldown in nanoseconds, or 0 if the player may act.
+     */
+    public long remaining(UUID playerId) {
+        long now = clock.getAsLong();
+        advance(now);
+
+        Long expiresAt = expiries.get(playerId);
+        if (expiresAt == null) {
+            return 0L;
+        }
+
+        long left = expiresAt - now;
+        if (left <= 0) {
+            expiries.remove(playerId);
+            return 0L;
+        }
+        return left;
+    }
+
+    public void start(UUID playerId, long durationNanos) {
+        if (durationNanos <= 0) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        advance(now);
+
+        long expiresAt = now + durationNanos;
+        expiries.put(playerId, expiresAt);
+        wheel.get(slot(expiresAt)).add(playerId);
+    }
+
+    public void remove(UUID playerId) {
+        expiries.remove(playerId);
+    }
+
+    public void clear() {
+        expiries.clear();
+        for (List<UUID> bucket : wheel) {
+            bucket.clear();
+        }
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    private void advance(long now) {
+        long target = now / SLOT_NANOS;
+        if (target <= cursor) {
+            return;
+        }
+
+        // After a long idle gap one full turn of the wheel covers every slot
+        long from = Math.max(cursor + 1, target - MASK);
+        for (long tick = from; tick <= target; tick++) {
+            expireSlot((int) (tick & MASK), now);
+        }
+        cursor = target;
+    }
+
+    private void expireSlot(int index, long now) {
+        Iterator<UUID> iterator = wheel.get(index).iterator();
+        while (iterator.hasNext()) {
+            UUID playerId = iterator.next();
+            Long expiresAt = expiries.get(playerId);
+
+            if (expiresAt == null || slot(expiresAt) != index) {
+                // Removed, or restarted into another slot
+                iterator.remove();
+            } else if (expiresAt - now <= 0) {
+                expiries.remove(playerId);
+                iterator.remove();
+            }
+        }
+    }
+
+    private static int slot(long nanos) {
+        return (int) ((nanos / SLOT_NANOS) & MASK);
+    }
+}
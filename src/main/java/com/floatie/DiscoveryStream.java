@@ -0,0 +1,63 @@
+package com.floatie;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hands blocks from an async tree search to its removal job, so removal can
+ * start on the next tick while the search is still running.
+ */
+public class DiscoveryStream implements TreeScanner.ScanSink {
+
+    private final ConcurrentLinkedQueue<Batch> batches = new ConcurrentLinkedQueue<>();
+    private final World world;
+    private final Player player;
+    private final int maxBlocks;
+    private volatile boolean finished;
+
+    public DiscoveryStream(World world, Player player, int maxBlocks) {
+        this.world = world;
+        this.player = player;
+        this.maxBlocks = maxBlocks;
+    }
+
+    @Override
+    public void accept(long[] keys, Material[] types, boolean leaves) {
+        batches.add(new Batch(keys, types, leaves));
+    }
+
+    /**
+     * Marks the search as over. Called on the scanning thread, also when the search fails.
+     */
+    void finish() {
+        finished = true;
+    }
+
+    Batch poll() {
+        return batches.poll();
+    }
+
+    /**
+     * Whether the search is over and every batch has been taken.
+     */
+    boolean isDrained() {
+        return finished && batches.isEmpty();
+    }
+
+    World getWorld() {
+        return world;
+    }
+
+    Player getPlayer() {
+        return player;
+    }
+
+    int getMaxBlocks() {
+        return maxBlocks;
+    }
+
+    record Batch(long[] keys, Material[] types, boolean leaves) {}
+}
@@ -0,0 +1,89 @@
+package com.floatie;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.*;
+
+/**
+ * Totals the drops of a whole felling job per material and delivers them as
+ * a few full stacks once the job ends.
+ */
+public class DropAggregator {
+
+    private final Map<Material, Integer> totals = new EnumMap<>(Material.class);
+    private final List<ItemStack> unstackable = new ArrayList<>();
+    private final Mode mode;
+    private final Player recipient;
+    private Location stump;
+
+    public DropAggregator(Mode mode, Location stump, Player recipient) {
+        this.mode = mode;
+        this.stump = stump;
+        this.recipient = recipient;
+    }
+
+    /**
+     * Moves the drop point down to the given log if it is lower than the current one.
+     */
+    public void lowerStump(long key) {
+        if (BlockKey.y(key) < stump.getBlockY()) {
+            stump = new Location(stump.getWorld(), BlockKey.x(key) + 0.5, BlockKey.y(key) + 0.5, BlockKey.z(key) + 0.5);
+        }
+    }
+
+    public void add(Collection<ItemStack> drops) {
+        for (ItemStack drop : drops) {
+            if (drop == null || drop.getAmount() <= 0) {
+                continue;
+            }
+
+            if (drop.hasItemMeta()) {
+                unstackable.add(drop);
+            } else {
+                totals.merge(drop.getType(), drop.getAmount(), Integer::sum);
+            }
+        }
+    }
+
+    public void flush() {
+        if (totals.isEmpty() && unstackable.isEmpty()) {
+            return;
+        }
+
+        List<ItemStack> stacks = new ArrayList<>(unstackable);
+        for (Map.Entry<Material, Integer> entry : totals.entrySet()) {
+            int maxStack = Math.max(1, entry.getKey().getMaxStackSize());
+            int remaining = entry.getValue();
+            while (remaining > 0) {
+                int amount = Math.min(maxStack, remaining);
+                stacks.add(new ItemStack(entry.getKey(), amount));
+                remaining -= amount;
+            }
+        }
+
+        totals.clear();
+        unstackable.clear();
+
+        Collection<ItemStack> toDrop = stacks;
+        if (mode == Mode.INVENTORY && recipient != null && recipient.isOnline()) {
+            toDrop = recipient.getInventory().addItem(stacks.toArray(new ItemStack[0])).values();
+        }
+
+        World world = stump.getWorld();
+        if (world == null) {
+            return;
+        }
+
+        for (ItemStack stack : toDrop) {
+            world.dropItem(stump, stack);
+        }
+    }
+
+    public enum Mode {
+        PER_BLOCK, STUMP, INVENTORY
+    }
+}
@@ -0,0 +1,136 @@
+package com.floatie;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Java Flight Recorder events for each stage of a felling, so a spike in a
+ * recording can be traced back to the job and tree that caused it. Callers
+ * check {@link Event#shouldCommit()} before filling in fields, so an event
+ * costs next to nothing while no recording is running.
+ */
+public final class FellingEvents {
+
+    private FellingEvents() {
+    }
+
+    @Category("Floatie")
+    @StackTrace(false)
+    public abstract static class FellingEvent extends Event {
+
+        @Label("Job ID")
+        @Description("Removal job the event belongs to, or 0 before a job exists")
+        long jobId;
+
+        @Label("Player")
+        String player;
+
+        @Label("World")
+        String world;
+
+        void describe(long jobId, Player player, World world) {
+            this.jobId = jobId;
+            this.player = player != null ? player.getName() : null;
+            this.world = world != null ? world.getName() : null;
+        }
+    }
+
+    @Name("com.floatie.Throw")
+    @Label("Axe Throw")
+    @Description("Handling of a right-click that threw an axe")
+    public static class ThrowEvent extends FellingEvent {
+
+        @Label("Axe")
+        String axe;
+    }
+
+    @Name("com.floatie.Hit")
+    @Label("Axe Hit")
+    @Description("An axe landing on a cleanable block")
+    public static class HitEvent extends FellingEvent {
+
+        @Label("X")
+        int x;
+
+        @Label("Y")
+        int y;
+
+        @Label("Z")
+        int z;
+
+        @Label("Outcome")
+        @Description("queued, joined, rejected or low-tps")
+        String outcome;
+    }
+
+    @Name("com.floatie.DiscoveryComplete")
+    @Label("Discovery Complete")
+    @Description("Search for a tree's logs and leaves; runs off the main thread with async discovery")
+    public static class DiscoveryEvent extends FellingEvent {
+
+        @Label("Logs Found")
+        int logs;
+
+        @Label("Leaves Found")
+        int leaves;
+
+        @Label("Log Search Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long logTime;
+
+        @Label("Leaf Search Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long leafTime;
+
+        @Label("From Tree Index")
+        boolean indexed;
+    }
+
+    @Name("com.floatie.ProtectionBatch")
+    @Label("Protection Batch")
+    @Description("Protection plugin checks for a batch of discovered blocks")
+    public static class ProtectionEvent extends FellingEvent {
+
+        @Label("Blocks Checked")
+        int blocks;
+
+        @Label("Blocks Denied")
+        int denied;
+    }
+
+    @Name("com.floatie.RemovalBatch")
+    @Label("Removal Batch")
+    @Description("Blocks one job removed in a tick. The event duration covers the effects played at the end of the batch")
+    public static class RemovalBatchEvent extends FellingEvent {
+
+        @Label("Blocks Removed")
+        int blocks;
+
+        @Label("Removal Time")
+        @Description("Time spent removing the blocks and running their boundary physics, summed over the job's slices of the tick")
+        @Timespan(Timespan.NANOSECONDS)
+        long removalTime;
+
+        @Label("Blocks Remaining")
+        int remaining;
+    }
+
+    @Name("com.floatie.JobCancelled")
+    @Label("Job Cancelled")
+    @Description("A removal job stopped early because the server was too slow to clean")
+    public static class JobCancelledEvent extends FellingEvent {
+
+        @Label("Blocks Remaining")
+        int remaining;
+
+        @Label("TPS")
+        double tps;
+    }
+}
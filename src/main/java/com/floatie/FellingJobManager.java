@@ -0,0 +1,173 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Admission control in front of tree discovery. Hits are queued per player and
+ * started round-robin while fewer than the configured number of jobs are
+ * running, so one player spamming axes cannot starve others. Removal speed is
+ * capped by a server-wide and a per-player token bucket.
+ */
+public class FellingJobManager {
+
+    private static final UUID NO_PLAYER = new UUID(0L, 0L);
+
+    private final Floatie plugin;
+    private final BlockCleaner blockCleaner;
+    private final Map<UUID, ArrayDeque<PendingFell>> queues = new HashMap<>();
+    private final ArrayDeque<UUID> rotation = new ArrayDeque<>();
+    private final Map<UUID, TokenBucket> playerLimiters = new HashMap<>();
+    private FloatieSettings.JobLimits limits;
+    private TokenBucket serverLimiter;
+    private BukkitTask task;
+    private int queued;
+    private int discovering;
+    private long accepted;
+    private long rejected;
+
+    public FellingJobManager(Floatie plugin, BlockCleaner blockCleaner) {
+        this.plugin = plugin;
+        this.blockCleaner = blockCleaner;
+    }
+
+    public void configure(FloatieSettings.JobLimits limits) {
+        this.limits = limits;
+        this.serverLimiter = limits.serverBlocksPerSecond() > 0 ? new TokenBucket(limits.serverBlocksPerSecond()) : null;
+        playerLimiters.clear();
+    }
+
+    TokenBucket getServerLimiter() {
+        return serverLimiter;
+    }
+
+    /**
+     * Returns the per-player block limiter, or {@code null} when unlimited.
+     */
+    TokenBucket limiterFor(Player player) {
+        if (player == null || limits.playerBlocksPerSecond() <= 0) {
+            return null;
+        }
+
+        TokenBucket limiter = playerLimiters.get(player.getUniqueId());
+        if (limiter == null) {
+            limiter = new TokenBucket(limits.playerBlocksPerSecond());
+            playerLimiters.put(player.getUniqueId(), limiter);
+        }
+        return limiter;
+    }
+
+    /**
+     * Queues a hit for discovery. Returns {@code false} if the queue is full.
+     */
+    public boolean submit(Block hitBlock, Player player) {
+        UUID owner = player != null ? player.getUniqueId() : NO_PLAYER;
+        ArrayDeque<PendingFell> queue = queues.get(owner);
+
+        if (queued >= limits.maxQueued() || (queue != null && queue.size() >= limits.maxQueuedPerPlayer())) {
+            rejected++;
+            return false;
+        }
+
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(owner, queue);
+            rotation.add(owner);
+        }
+
+        queue.add(new PendingFell(hitBlock, player));
+        queued++;
+        accepted++;
+        ensureRunning();
+        return true;
+    }
+
+    /**
+     * Drops a player's queued hits and rate limiter once they leave.
+     */
+    public void removePlayer(UUID playerId) {
+        playerLimiters.remove(playerId);
+
+        ArrayDeque<PendingFell> queue = queues.remove(playerId);
+        if (queue != null) {
+            queued -= queue.size();
+            rotation.remove(playerId);
+        }
+    }
+
+    void discoveryFinished() {
+        discovering--;
+    }
+
+    public int getQueueDepth() {
+        return queued;
+    }
+
+    public int getRunningJobs() {
+        return discovering + blockCleaner.getRemovalScheduler().getActiveJobs();
+    }
+
+    public long getAcceptedCount() {
+        return accepted;
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    public void clear() {
+        queues.clear();
+        rotation.clear();
+        playerLimiters.clear();
+        queued = 0;
+        stop();
+    }
+
+    private void tick() {
+        while (queued > 0 && getRunningJobs() < limits.maxConcurrent()) {
+            UUID owner = rotation.poll();
+            ArrayDeque<PendingFell> queue = queues.get(owner);
+            PendingFell next = queue.poll();
+            queued--;
+
+            if (queue.isEmpty()) {
+                queues.remove(owner);
+            } else {
+                rotation.add(owner);
+            }
+
+            if (next.player() != null && !next.player().isOnline()) {
+                continue;
+            }
+
+            discovering++;
+            blockCleaner.startJob(next.hitBlock(), next.player());
+        }
+
+        if (queued == 0) {
+            stop();
+        }
+    }
+
+    private void ensureRunning() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private record PendingFell(Block hitBlock, Player player) {}
+}
@@ -9,6 +9,9 @@ import org.bukkit.plugin.java.JavaPlugin;
 public class Floatie extends JavaPlugin implements CommandExecutor {
 
     private static Floatie instance;
+    private volatile FloatieSettings settings;
+    private TickMonitor tickMonitor;
+    private FloatieMetrics metrics;
     private BlockCleaner blockCleaner;
     private AxeThrowListener axeThrowListener;
 
@@ -17,11 +20,17 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
         instance = this;
 
         saveDefaultConfig();
+        settings = FloatieSettings.load(getConfig(), getLogger());
 
+        tickMonitor = new TickMonitor(this);
+        tickMonitor.start();
+        metrics = new FloatieMetrics(this);
         blockCleaner = new BlockCleaner(this);
         axeThrowListener = new AxeThrowListener(this, blockCleaner);
+        metrics.setExportInterval(settings.metricsExportInterval());
 
         getServer().getPluginManager().registerEvents(axeThrowListener, this);
+        getServer().getPluginManager().registerEvents(blockCleaner.getTreeIndex(), this);
 
         if (getCommand("floatie") != null) {
             getCommand("floatie").setExecutor(this);
@@ -41,6 +50,18 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
             axeThrowListener.cleanup();
         }
 
+        if (blockCleaner != null) {
+            blockCleaner.shutdown();
+        }
+
+        if (metrics != null) {
+            metrics.stop();
+        }
+
+        if (tickMonitor != null) {
+            tickMonitor.stop();
+        }
+
         getServer().getScheduler().cancelTasks(this);
         getLogger().info("Floatie plugin disabled!");
     }
@@ -59,6 +80,10 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
                 return handleReload(sender);
             case "status":
                 return handleStatus(sender);
+            case "metrics":
+                return handleMetrics(sender);
+            case "undo":
+                return handleUndo(sender, args);
             case "clearcd":
                 return handleClearCooldowns(sender);
             case "help":
@@ -75,7 +100,7 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
         sender.sendMessage(ChatColor.YELLOW + "Use /floatie help for commands");
 
         if (sender.hasPermission("floatie.admin")) {
-            double tps = blockCleaner.getCurrentTPS();
+            double tps = tickMonitor.getTps1m();
             String tpsColor = tps >= 18 ? ChatColor.GREEN.toString() : tps >= 15 ? ChatColor.YELLOW.toString() : ChatColor.RED.toString();
             sender.sendMessage(ChatColor.GRAY + "Current TPS: " + tpsColor + String.format("%.2f", tps));
         }
@@ -88,8 +113,11 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
         }
 
         reloadConfig();
-        blockCleaner.loadSettings();
+        settings = FloatieSettings.load(getConfig(), getLogger());
+        blockCleaner.applySettings(settings);
+        axeThrowListener.applySettings(settings);
         axeThrowListener.clearAllCooldowns();
+        metrics.setExportInterval(settings.metricsExportInterval());
 
         sender.sendMessage(ChatColor.GREEN + "Floatie configuration reloaded!");
         return true;
@@ -101,19 +129,97 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
             return true;
         }
 
-        double tps = blockCleaner.getCurrentTPS();
+        FloatieSettings settings = this.settings;
+        double tps = tickMonitor.getTps1m();
         boolean canUse = blockCleaner.canClean();
-        double minTPS = getConfig().getDouble("performance.min-tps", 15.0);
-        boolean tpsCheckEnabled = getConfig().getBoolean("performance.tps-check-enabled", true);
 
         sender.sendMessage(ChatColor.GOLD + "=== Floatie Status ===");
         sender.sendMessage(ChatColor.YELLOW + "Current TPS: " + ChatColor.WHITE + String.format("%.2f", tps));
-        sender.sendMessage(ChatColor.YELLOW + "Min TPS Required: " + ChatColor.WHITE + minTPS);
-        sender.sendMessage(ChatColor.YELLOW + "TPS Check: " + (tpsCheckEnabled ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"));
+        sender.sendMessage(ChatColor.YELLOW + "Tick Interval ms (1s/10s/1m): " + ChatColor.WHITE + String.format("%.1f / %.1f / %.1f",
+                tickMonitor.getInterval1s(), tickMonitor.getInterval10s(), tickMonitor.getInterval1m()));
+        sender.sendMessage(ChatColor.YELLOW + "Tick Interval p50/p95/p99 (1m): " + ChatColor.WHITE + String.format("%.1f / %.1f / %.1f",
+                tickMonitor.getIntervalPercentile50(), tickMonitor.getIntervalPercentile95(), tickMonitor.getIntervalPercentile99()));
+        sender.sendMessage(ChatColor.YELLOW + "MSPT (5s): " + (tickMonitor.hasMspt()
+                ? ChatColor.WHITE + String.format("%.1f", tickMonitor.getMspt())
+                : ChatColor.GRAY + "unavailable, needs Paper"));
+        sender.sendMessage(ChatColor.YELLOW + "Min TPS Required: " + ChatColor.WHITE + settings.minTps());
+        sender.sendMessage(ChatColor.YELLOW + "TPS Check: " + (settings.tpsCheckEnabled() ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"));
+        sender.sendMessage(ChatColor.YELLOW + "Active Removal Jobs: " + ChatColor.WHITE + blockCleaner.getRemovalScheduler().getActiveJobs()
+                + ChatColor.GRAY + " (" + blockCleaner.getRemovalScheduler().getQueuedBlocks() + " blocks queued)");
+        FellingJobManager jobManager = blockCleaner.getJobManager();
+        sender.sendMessage(ChatColor.YELLOW + "Queued Hits: " + ChatColor.WHITE + jobManager.getQueueDepth()
+                + ChatColor.GRAY + " (" + jobManager.getAcceptedCount() + " accepted, " + jobManager.getRejectedCount() + " rejected)");
+        RemovalRateController rateController = blockCleaner.getRemovalScheduler().getRateController();
+        if (rateController != null) {
+            sender.sendMessage(ChatColor.YELLOW + "Adaptive Removal Rate: " + ChatColor.WHITE + rateController.getCurrentBudget() + " blocks/tick"
+                    + (rateController.shouldPause() ? ChatColor.RED + " (paused)" : ""));
+        }
+        if (settings.treeIndex()) {
+            sender.sendMessage(ChatColor.YELLOW + "Indexed Logs: " + ChatColor.WHITE + blockCleaner.getTreeIndex().getIndexedLogs());
+        }
         sender.sendMessage(ChatColor.YELLOW + "Can Use Plugin: " + (canUse ? ChatColor.GREEN + "Yes" : ChatColor.RED + "No"));
-        sender.sendMessage(ChatColor.YELLOW + "Visual Axes: " + (getConfig().getBoolean("visual-axe", true) ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"));
-        sender.sendMessage(ChatColor.YELLOW + "Effects: " + (getConfig().getBoolean("effects.enabled", false) ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"));
+        sender.sendMessage(ChatColor.YELLOW + "Visual Axes: " + (settings.visualAxe() ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"));
+        sender.sendMessage(ChatColor.YELLOW + "Effects: " + (settings.effectsEnabled() ? ChatColor.GREEN + "Enabled" : ChatColor.RED + "Disabled"));
+
+        return true;
+    }
 
+    private boolean handleMetrics(CommandSender sender) {
+        if (!sender.hasPermission("floatie.admin")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use this command!");
+            return true;
+        }
+
+        RemovalScheduler scheduler = blockCleaner.getRemovalScheduler();
+        sender.sendMessage(ChatColor.GOLD + "=== Floatie Metrics ===");
+        sender.sendMessage(ChatColor.YELLOW + "Active Jobs: " + ChatColor.WHITE + scheduler.getActiveJobs()
+                + ChatColor.GRAY + " (" + scheduler.getQueuedBlocks() + " blocks queued)");
+
+        for (FloatieMetrics.Stage stage : FloatieMetrics.Stage.values()) {
+            FloatieMetrics.StageStats stats = metrics.get(stage);
+            if (stats.getCount() == 0) {
+                sender.sendMessage(ChatColor.YELLOW + stage.displayName() + ": " + ChatColor.GRAY + "no samples");
+                continue;
+            }
+
+            String line = ChatColor.YELLOW + stage.displayName() + ": " + ChatColor.WHITE + stats.getCount() + "x"
+                    + ChatColor.GRAY + " avg " + ChatColor.WHITE + formatDuration(stats.getAverageNanos())
+                    + ChatColor.GRAY + ", p50/p95/p99 " + ChatColor.WHITE + formatBound(stats.getPercentileBound(0.50))
+                    + " / " + formatBound(stats.getPercentileBound(0.95)) + " / " + formatBound(stats.getPercentileBound(0.99));
+            if (stats.getBlocks() > 0) {
+                line += ChatColor.GRAY + ", " + ChatColor.WHITE + String.format("%.0f", stats.getNanosPerBlock())
+                        + ChatColor.GRAY + " ns/block";
+            }
+            sender.sendMessage(line);
+        }
+
+        sender.sendMessage(ChatColor.GRAY + "Percentiles are bucket upper bounds.");
+        return true;
+    }
+
+    private static String formatDuration(double nanos) {
+        return nanos < 1_000_000.0
+                ? String.format("%.1f µs", nanos / 1_000.0)
+                : String.format("%.2f ms", nanos / 1_000_000.0);
+    }
+
+    private static String formatBound(long nanos) {
+        return nanos < 0 ? ">" + formatDuration(FloatieMetrics.BUCKET_BOUNDS_NANOS[FloatieMetrics.BUCKET_BOUNDS_NANOS.length - 1])
+                : "≤" + formatDuration(nanos);
+    }
+
+    private boolean handleUndo(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("floatie.admin")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use this command!");
+            return true;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage(ChatColor.RED + "Usage: /floatie undo <player|job>");
+            return true;
+        }
+
+        blockCleaner.getUndoJournal().undo(args[1], sender);
         return true;
     }
 
@@ -137,6 +243,8 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
             sender.sendMessage(ChatColor.GOLD + "Admin Commands:");
             sender.sendMessage(ChatColor.YELLOW + "/floatie reload" + ChatColor.WHITE + " - Reload configuration");
             sender.sendMessage(ChatColor.YELLOW + "/floatie status" + ChatColor.WHITE + " - Check detailed plugin status");
+            sender.sendMessage(ChatColor.YELLOW + "/floatie metrics" + ChatColor.WHITE + " - Show time spent in each stage");
+            sender.sendMessage(ChatColor.YELLOW + "/floatie undo <player|job>" + ChatColor.WHITE + " - Restore the last tree felled by a player, or a job by ID");
             sender.sendMessage(ChatColor.YELLOW + "/floatie clearcd" + ChatColor.WHITE + " - Clear all player cooldowns");
         }
 
@@ -146,6 +254,22 @@ public class Floatie extends JavaPlugin implements CommandExecutor {
         return true;
     }
 
+    public FloatieSettings getSettings() {
+        return settings;
+    }
+
+    public FloatieMetrics getMetrics() {
+        return metrics;
+    }
+
+    public BlockCleaner getBlockCleaner() {
+        return blockCleaner;
+    }
+
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+
     public static Floatie getInstance() {
         return instance;
     }
@@ -0,0 +1,264 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Counters and fixed-bucket latency histograms for each stage of a felling,
+ * shown by {@code /floatie metrics} and optionally written to
+ * {@code metrics.prom} in the Prometheus text format. Recording is a few
+ * atomic adds, so stages that run off the main thread can record too.
+ */
+public class FloatieMetrics {
+
+    /**
+     * Upper bounds of the histogram buckets; a final bucket takes everything slower.
+     */
+    static final long[] BUCKET_BOUNDS_NANOS = {
+            10_000L, 50_000L, 100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L
+    };
+
+    private static final String EXPORT_FILE = "metrics.prom";
+
+    private final Floatie plugin;
+    private final StageStats[] stages = new StageStats[Stage.values().length];
+    private BukkitTask exportTask;
+    private int exportIntervalSeconds;
+
+    public FloatieMetrics(Floatie plugin) {
+        this.plugin = plugin;
+        for (Stage stage : Stage.values()) {
+            stages[stage.ordinal()] = new StageStats();
+        }
+    }
+
+    /**
+     * @param blocks blocks handled by this run of the stage, used for the
+     *               per-block cost; 0 when the stage is not per block
+     */
+    public void record(Stage stage, long nanos, int blocks) {
+        stages[stage.ordinal()].record(nanos, blocks);
+    }
+
+    public StageStats get(Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    /**
+     * Writes the export file every {@code intervalSeconds}, or stops writing it when 0.
+     */
+    public void setExportInterval(int intervalSeconds) {
+        if (intervalSeconds == exportIntervalSeconds) {
+            return;
+        }
+
+        stop();
+        if (intervalSeconds > 0) {
+            long period = intervalSeconds * 20L;
+            exportTask = Bukkit.getScheduler().runTaskTimer(plugin, this::export, period, period);
+            exportIntervalSeconds = intervalSeconds;
+        }
+    }
+
+    public void stop() {
+        if (exportTask != null) {
+            exportTask.cancel();
+            exportTask = null;
+        }
+        exportIntervalSeconds = 0;
+    }
+
+    /**
+     * Renders on the main thread, where the gauges can be read safely, and
+     * writes the file asynchronously.
+     */
+    private void export() {
+        String text = renderPrometheus();
+        Path target = plugin.getDataFolder().toPath().resolve(EXPORT_FILE);
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.createDirectories(target.getParent());
+                Path temp = target.resolveSibling(EXPORT_FILE + ".tmp");
+                Files.write(temp, text.getBytes(StandardCharsets.UTF_8));
+                // Scrapers must never see a half-written file
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not write " + EXPORT_FILE, e);
+            }
+        });
+    }
+
+    String renderPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP floatie_stage_duration_seconds Time spent per run of each stage.\n");
+        out.append("# TYPE floatie_stage_duration_seconds histogram\n");
+        for (Stage stage : Stage.values()) {
+            StageStats stats = get(stage);
+            long cumulative = 0L;
+            for (int i = 0; i <= BUCKET_BOUNDS_NANOS.length; i++) {
+                cumulative += stats.getBucket(i);
+                String bound = i < BUCKET_BOUNDS_NANOS.length ? seconds(BUCKET_BOUNDS_NANOS[i]) : "+Inf";
+                out.append("floatie_stage_duration_seconds_bucket{stage=\"").append(stage.key())
+                        .append("\",le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+            }
+            out.append("floatie_stage_duration_seconds_sum{stage=\"").append(stage.key()).append("\"} ")
+                    .append(seconds(stats.getTotalNanos())).append('\n');
+            out.append("floatie_stage_duration_seconds_count{stage=\"").append(stage.key()).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+
+        out.append("# HELP floatie_stage_blocks_total Blocks handled by each stage.\n");
+        out.append("# TYPE floatie_stage_blocks_total counter\n");
+        for (Stage stage : Stage.values()) {
+            out.append("floatie_stage_blocks_total{stage=\"").append(stage.key()).append("\"} ")
+                    .append(get(stage).getBlocks()).append('\n');
+        }
+
+        RemovalScheduler scheduler = plugin.getBlockCleaner().getRemovalScheduler();
+        FellingJobManager jobManager = plugin.getBlockCleaner().getJobManager();
+        gauge(out, "floatie_active_jobs", "Removal jobs currently running.", scheduler.getActiveJobs());
+        gauge(out, "floatie_queued_blocks", "Blocks waiting to be removed.", scheduler.getQueuedBlocks());
+        gauge(out, "floatie_queued_hits", "Axe hits waiting for a job slot.", jobManager.getQueueDepth());
+        counter(out, "floatie_accepted_hits_total", "Axe hits admitted by the job manager.", jobManager.getAcceptedCount());
+        counter(out, "floatie_rejected_hits_total", "Axe hits turned away by the job manager.", jobManager.getRejectedCount());
+        TickMonitor tickMonitor = plugin.getTickMonitor();
+        out.append("# HELP floatie_tick_interval_ms Average time between tick starts over the last 10 seconds; not MSPT.\n");
+        out.append("# TYPE floatie_tick_interval_ms gauge\n");
+        out.append("floatie_tick_interval_ms ").append(String.format(Locale.ROOT, "%.3f", tickMonitor.getInterval10s())).append('\n');
+        if (tickMonitor.hasMspt()) {
+            out.append("# HELP floatie_mspt Average tick work time over the last 100 ticks as reported by Paper, in milliseconds.\n");
+            out.append("# TYPE floatie_mspt gauge\n");
+            out.append("floatie_mspt ").append(String.format(Locale.ROOT, "%.3f", tickMonitor.getMspt())).append('\n');
+        }
+
+        return out.toString();
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1_000_000_000.0);
+    }
+
+    public enum Stage {
+        THROW("throw", "Throw"),
+        LOG_DISCOVERY("log_discovery", "Log Discovery"),
+        LEAF_DISCOVERY("leaf_discovery", "Leaf Discovery"),
+        PROTECTION("protection", "Protection"),
+        REMOVAL_BATCH("removal_batch", "Removal Batch"),
+        DROPS("drops", "Drops");
+
+        private final String key;
+        private final String displayName;
+
+        Stage(String key, String displayName) {
+            this.key = key;
+            this.displayName = displayName;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String displayName() {
+            return displayName;
+        }
+    }
+
+    public static class StageStats {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_NANOS.length + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder blocks = new LongAdder();
+        private final LongAdder blockNanos = new LongAdder();
+
+        void record(long nanos, int blockCount) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+                bucket++;
+            }
+
+            buckets.incrementAndGet(bucket);
+            count.increment();
+            totalNanos.add(nanos);
+            if (blockCount > 0) {
+                blocks.add(blockCount);
+                blockNanos.add(nanos);
+            }
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getBlocks() {
+            return blocks.sum();
+        }
+
+        long getBucket(int index) {
+            return buckets.get(index);
+        }
+
+        public double getAverageNanos() {
+            long runs = getCount();
+            return runs == 0 ? 0.0 : (double) getTotalNanos() / runs;
+        }
+
+        /**
+         * Time per block over the runs that handled blocks, or 0 when none did.
+         */
+        public double getNanosPerBlock() {
+            long total = getBlocks();
+            return total == 0 ? 0.0 : (double) blockNanos.sum() / total;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, or -1 when it
+         * falls in the overflow bucket.
+         */
+        public long getPercentileBound(double quantile) {
+            long runs = getCount();
+            if (runs == 0) {
+                return 0L;
+            }
+
+            long rank = (long) Math.ceil(quantile * runs);
+            long cumulative = 0L;
+            for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+                cumulative += buckets.get(i);
+                if (cumulative >= rank) {
+                    return BUCKET_BOUNDS_NANOS[i];
+                }
+            }
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.floatie;
+
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Immutable snapshot of the plugin configuration. Parsed once on enable and on
+ * {@code /floatie reload}, then swapped in as a whole so readers never see a
+ * half-applied reload and never touch the YAML tree on hot paths.
+ */
+public record FloatieSettings(
+        int maxBlocks,
+        MaterialSet cleanableBlocks,
+        boolean dropItems,
+        DropAggregator.Mode dropMode,
+        boolean consumeAxe,
+        double throwVelocity,
+        long throwCooldownMillis,
+        boolean visualAxe,
+        int visualUpdateInterval,
+        boolean virtualProjectiles,
+        boolean animatedRemoval,
+        int leafSearchRadius,
+        boolean effectsEnabled,
+        Particle particleType,
+        int maxParticleBursts,
+        boolean tpsCheckEnabled,
+        double minTps,
+        int blocksPerTick,
+        long removalDelayTicks,
+        long tickBudgetNanos,
+        int maxChunkLoadRadius,
+        boolean asyncDiscovery,
+        int protectionCacheTicks,
+        AdaptiveRemoval adaptiveRemoval,
+        JobLimits jobLimits,
+        boolean treeIndex,
+        boolean deferredPhysics,
+        int metricsExportInterval,
+        JournalSettings undoJournal
+) {
+
+    public static FloatieSettings load(FileConfiguration config, Logger logger) {
+        return new FloatieSettings(
+                config.getInt("max-blocks", 500),
+                loadCleanableBlocks(config, logger),
+                config.getBoolean("drop-items", true),
+                loadDropMode(config, logger),
+                config.getBoolean("consume-axe", true),
+                config.getDouble("throw-velocity", 1.5),
+                config.getLong("throw-cooldown", 1) * 1000L,
+                config.getBoolean("visual-axe", true),
+                config.getInt("visual-update-interval", 3),
+                "VIRTUAL".equalsIgnoreCase(config.getString("projectile-mode", "ENTITY")),
+                config.getBoolean("animated-removal", true),
+                config.getInt("leaf-search-radius", 6),
+                config.getBoolean("effects.enabled", false),
+                loadParticleType(config, logger),
+                config.getInt("effects.max-particle-bursts", 6),
+                config.getBoolean("performance.tps-check-enabled", true),
+                config.getDouble("performance.min-tps", 15.0),
+                config.getInt("performance.blocks-per-tick", 100),
+                Math.max(1L, config.getInt("performance.removal-delay", 1)),
+                (long) (config.getDouble("performance.tick-budget-ms", 5.0) * 1_000_000L),
+                config.getInt("performance.max-chunk-load-radius", 5),
+                config.getBoolean("performance.async-discovery", false),
+                config.getInt("performance.protection-cache-ticks", 20),
+                loadAdaptiveRemoval(config),
+                loadJobLimits(config),
+                config.getBoolean("performance.tree-index", false),
+                config.getBoolean("performance.deferred-physics", true),
+                Math.max(0, config.getInt("metrics.export-interval", 60)),
+                loadUndoJournal(config)
+        );
+    }
+
+    private static MaterialSet loadCleanableBlocks(FileConfiguration config, Logger logger) {
+        List<Material> blocks = new ArrayList<>();
+
+        for (String blockName : config.getStringList("cleanable-blocks")) {
+            try {
+                blocks.add(Material.valueOf(blockName.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid block type: " + blockName);
+            }
+        }
+
+        return blocks.isEmpty() ? MaterialSet.of(Material.OAK_LOG) : MaterialSet.of(blocks);
+    }
+
+    private static DropAggregator.Mode loadDropMode(FileConfiguration config, Logger logger) {
+        try {
+            String modeName = config.getString("drop-mode", "PER_BLOCK");
+            return DropAggregator.Mode.valueOf(modeName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid drop mode, using PER_BLOCK");
+            return DropAggregator.Mode.PER_BLOCK;
+        }
+    }
+
+    private static Particle loadParticleType(FileConfiguration config, Logger logger) {
+        try {
+            String particleName = config.getString("effects.particle-type", "CLOUD");
+            return Particle.valueOf(particleName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid particle type, using CLOUD");
+            return Particle.CLOUD;
+        }
+    }
+
+    private static AdaptiveRemoval loadAdaptiveRemoval(FileConfiguration config) {
+        if (!config.getBoolean("performance.adaptive-removal.enabled", false)) {
+            return null;
+        }
+
+        return new AdaptiveRemoval(
+                config.getInt("performance.adaptive-removal.min-blocks-per-tick", 10),
+                config.getInt("performance.adaptive-removal.max-blocks-per-tick", 1000),
+                config.getDouble("performance.adaptive-removal.increase-per-tick", 5.0),
+                config.getDouble("performance.adaptive-removal.backoff-factor", 0.5),
+                config.getDouble("performance.adaptive-removal.max-mspt", 45.0),
+                config.getDouble("performance.adaptive-removal.pause-mspt", 60.0)
+        );
+    }
+
+    private static JobLimits loadJobLimits(FileConfiguration config) {
+        return new JobLimits(
+                Math.max(1, config.getInt("performance.jobs.max-concurrent", 8)),
+                Math.max(1, config.getInt("performance.jobs.max-queued", 64)),
+                Math.max(1, config.getInt("performance.jobs.max-queued-per-player", 3)),
+                config.getDouble("performance.jobs.server-blocks-per-second", 4000.0),
+                config.getDouble("performance.jobs.player-blocks-per-second", 1000.0)
+        );
+    }
+
+    private static JournalSettings loadUndoJournal(FileConfiguration config) {
+        if (!config.getBoolean("undo-journal.enabled", false)) {
+            return null;
+        }
+
+        int segmentMb = Math.min(1024, Math.max(1, config.getInt("undo-journal.segment-size-mb", 16)));
+        return new JournalSettings(segmentMb * 1024 * 1024, Math.max(1, config.getInt("undo-journal.max-segments", 8)));
+    }
+
+    /**
+     * Adaptive removal parameters; {@code null} in the settings when the mode is disabled.
+     */
+    public record AdaptiveRemoval(int minBlocksPerTick, int maxBlocksPerTick, double increasePerTick,
+                                  double backoffFactor, double maxMspt, double pauseMspt) {}
+
+    /**
+     * Felling job admission limits; a blocks-per-second rate of 0 or less means unlimited.
+     */
+    public record JobLimits(int maxConcurrent, int maxQueued, int maxQueuedPerPlayer,
+                            double serverBlocksPerSecond, double playerBlocksPerSecond) {}
+
+    /**
+     * Undo journal segment limits; {@code null} in the settings when the journal is disabled.
+     */
+    public record JournalSettings(int segmentBytes, int maxSegments) {}
+}
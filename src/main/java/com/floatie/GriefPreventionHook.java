@@ -0,0 +1,125 @@
+package com.floatie;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+public final class GriefPreventionHook implements ProtectionHook {
+
+    private final MethodHandle getClaimAt;
+    private final MethodHandle allowBreak;
+    private final ClaimProbe claimProbe;
+
+    private GriefPreventionHook(MethodHandle getClaimAt, MethodHandle allowBreak, ClaimProbe claimProbe) {
+        this.getClaimAt = getClaimAt;
+        this.allowBreak = allowBreak;
+        this.claimProbe = claimProbe;
+    }
+
+    public static GriefPreventionHook link() throws ReflectiveOperationException {
+        Class<?> gpClass = Class.forName("me.ryanhamshire.GriefPrevention.GriefPrevention");
+        Class<?> claimClass = Class.forName("me.ryanhamshire.GriefPrevention.Claim");
+        Object gpInstance = gpClass.getField("instance").get(null);
+        Object dataStore = gpClass.getField("dataStore").get(gpInstance);
+
+        Method getClaimAtMethod = gpClass.getField("dataStore").getType()
+                .getMethod("getClaimAt", Location.class, boolean.class, claimClass);
+        MethodHandle claimAt = LOOKUP.unreflect(getClaimAtMethod)
+                .bindTo(dataStore)
+                .asType(MethodType.methodType(Object.class, Location.class, boolean.class, Object.class));
+        MethodHandle breakCheck = LOOKUP.unreflect(claimClass.getMethod("allowBreak", Player.class, Material.class))
+                .asType(MethodType.methodType(String.class, Object.class, Player.class, Material.class));
+
+        ClaimProbe probe;
+        try {
+            probe = ClaimProbe.link(getClaimAtMethod.getDeclaringClass(), claimClass, dataStore);
+        } catch (ReflectiveOperationException e) {
+            probe = null;
+        }
+
+        return new GriefPreventionHook(claimAt, breakCheck, probe);
+    }
+
+    @Override
+    public String getName() {
+        return "GriefPrevention";
+    }
+
+    @Override
+    public boolean canBreak(Player player, Location location) throws Throwable {
+        Object claim = (Object) getClaimAt.invokeExact(location, false, (Object) null);
+        if (claim == null) {
+            return true;
+        }
+
+        String denial = (String) allowBreak.invokeExact(claim, player, location.getBlock().getType());
+        return denial == null;
+    }
+
+    @Override
+    public ChunkDecision checkChunk(Player player, Location sample, int chunkX, int chunkZ) throws Throwable {
+        if (claimProbe == null) {
+            return ChunkDecision.PER_BLOCK;
+        }
+
+        Collection<?> claims = (Collection<?>) claimProbe.getClaims().invokeExact(chunkX, chunkZ);
+        if (claims == null || claims.isEmpty()) {
+            return ChunkDecision.ALLOW;
+        }
+
+        if (claims.size() != 1) {
+            return ChunkDecision.PER_BLOCK;
+        }
+
+        Object claim = claims.iterator().next();
+        if (!claimProbe.coversChunk(claim, chunkX, chunkZ)) {
+            return ChunkDecision.PER_BLOCK;
+        }
+
+        String denial = (String) allowBreak.invokeExact(claim, player, sample.getBlock().getType());
+        return denial == null ? ChunkDecision.ALLOW : ChunkDecision.DENY;
+    }
+
+    /**
+     * Resolves the claims touching a chunk and whether a single claim, without
+     * subdivisions, covers the whole chunk.
+     */
+    private record ClaimProbe(MethodHandle getClaims, MethodHandle lesserCorner, MethodHandle greaterCorner,
+                              MethodHandle children) {
+
+        static ClaimProbe link(Class<?> dataStoreClass, Class<?> claimClass, Object dataStore)
+                throws ReflectiveOperationException {
+            MethodHandle getClaims = LOOKUP.unreflect(dataStoreClass.getMethod("getClaims", int.class, int.class))
+                    .bindTo(dataStore)
+                    .asType(MethodType.methodType(Collection.class, int.class, int.class));
+            MethodHandle lesser = LOOKUP.unreflect(claimClass.getMethod("getLesserBoundaryCorner"))
+                    .asType(MethodType.methodType(Location.class, Object.class));
+            MethodHandle greater = LOOKUP.unreflect(claimClass.getMethod("getGreaterBoundaryCorner"))
+                    .asType(MethodType.methodType(Location.class, Object.class));
+            MethodHandle children = LOOKUP.unreflectGetter(claimClass.getField("children"))
+                    .asType(MethodType.methodType(Collection.class, Object.class));
+
+            return new ClaimProbe(getClaims, lesser, greater, children);
+        }
+
+        boolean coversChunk(Object claim, int chunkX, int chunkZ) throws Throwable {
+            Collection<?> subdivisions = (Collection<?>) children.invokeExact(claim);
+            if (subdivisions != null && !subdivisions.isEmpty()) {
+                return false;
+            }
+
+            Location lesser = (Location) lesserCorner.invokeExact(claim);
+            Location greater = (Location) greaterCorner.invokeExact(claim);
+            int minX = chunkX << 4;
+            int minZ = chunkZ << 4;
+
+            return lesser.getBlockX() <= minX && greater.getBlockX() >= minX + 15
+                    && lesser.getBlockZ() <= minZ && greater.getBlockZ() >= minZ + 15;
+        }
+    }
+}
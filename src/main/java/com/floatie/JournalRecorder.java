@@ -0,0 +1,67 @@
+package com.floatie;
+
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the blocks a job removes for the {@link UndoJournal}. A tree has
+ * only a handful of distinct block states, so each block is stored as its key
+ * and an index into a per-job palette, and each state is turned into a string
+ * only once.
+ */
+public class JournalRecorder {
+
+    private static final int MAX_PALETTE = 0xFFFF;
+
+    private final Map<BlockData, Integer> paletteIndex = new HashMap<>();
+    private final List<BlockData> palette = new ArrayList<>();
+    private final LongList keys = new LongList(64);
+    private char[] states = new char[64];
+
+    /**
+     * Remembers a block just before it is removed.
+     */
+    void record(long key, BlockData data) {
+        Integer index = paletteIndex.get(data);
+        if (index == null) {
+            if (palette.size() == MAX_PALETTE) {
+                return;
+            }
+            index = palette.size();
+            palette.add(data);
+            paletteIndex.put(data, index);
+        }
+
+        int size = keys.size();
+        if (size == states.length) {
+            states = Arrays.copyOf(states, size << 1);
+        }
+        states[size] = (char) index.intValue();
+        keys.add(key);
+    }
+
+    boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    UndoJournal.Entry toEntry(long jobId, Player owner, World world) {
+        short[] ordinals = new short[palette.size()];
+        String[] data = new String[palette.size()];
+        for (int i = 0; i < data.length; i++) {
+            BlockData state = palette.get(i);
+            ordinals[i] = (short) state.getMaterial().ordinal();
+            data[i] = state.getAsString();
+        }
+
+        return new UndoJournal.Entry(jobId, System.currentTimeMillis(),
+                owner != null ? owner.getUniqueId() : null, owner != null ? owner.getName() : null,
+                world.getName(), ordinals, data, keys.toArray(), Arrays.copyOf(states, keys.size()));
+    }
+}
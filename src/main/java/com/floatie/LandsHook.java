@@ -0,0 +1,79 @@
+package com.floatie;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+public final class LandsHook implements ProtectionHook {
+
+    private final MethodHandle getArea;
+    private final MethodHandle hasBreakFlag;
+    private final MethodHandle getLandByChunk;
+
+    private LandsHook(MethodHandle getArea, MethodHandle hasBreakFlag, MethodHandle getLandByChunk) {
+        this.getArea = getArea;
+        this.hasBreakFlag = hasBreakFlag;
+        this.getLandByChunk = getLandByChunk;
+    }
+
+    public static LandsHook link(Plugin plugin) throws ReflectiveOperationException {
+        Class<?> landsIntegrationClass = Class.forName("me.angeschossen.lands.api.integration.LandsIntegration");
+        Class<?> flagsClass = Class.forName("me.angeschossen.lands.api.flags.type.Flags");
+        Class<?> roleFlagClass = Class.forName("me.angeschossen.lands.api.flags.type.RoleFlag");
+
+        Method of = landsIntegrationClass.getMethod("of", Plugin.class);
+        Object landsAPI = of.invoke(null, plugin);
+        Object blockBreakFlag = flagsClass.getField("BLOCK_BREAK").get(null);
+
+        Method getAreaMethod = of.getReturnType().getMethod("getArea", Location.class);
+        MethodHandle area = LOOKUP.unreflect(getAreaMethod)
+                .bindTo(landsAPI)
+                .asType(MethodType.methodType(Object.class, Location.class));
+        Method hasFlagMethod = getAreaMethod.getReturnType()
+                .getMethod("hasFlag", Player.class, roleFlagClass, boolean.class);
+        MethodHandle hasFlag = MethodHandles.insertArguments(LOOKUP.unreflect(hasFlagMethod), 2, blockBreakFlag, false)
+                .asType(MethodType.methodType(boolean.class, Object.class, Player.class));
+
+        MethodHandle landByChunk;
+        try {
+            landByChunk = LOOKUP.unreflect(of.getReturnType().getMethod("getLandByChunk", World.class, int.class, int.class))
+                    .bindTo(landsAPI)
+                    .asType(MethodType.methodType(Object.class, World.class, int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            landByChunk = null;
+        }
+
+        return new LandsHook(area, hasFlag, landByChunk);
+    }
+
+    @Override
+    public String getName() {
+        return "Lands";
+    }
+
+    @Override
+    public boolean canBreak(Player player, Location location) throws Throwable {
+        Object area = (Object) getArea.invokeExact(location);
+        if (area == null) {
+            return true;
+        }
+
+        return (boolean) hasBreakFlag.invokeExact(area, player);
+    }
+
+    @Override
+    public ChunkDecision checkChunk(Player player, Location sample, int chunkX, int chunkZ) throws Throwable {
+        if (getLandByChunk == null) {
+            return ChunkDecision.PER_BLOCK;
+        }
+
+        Object land = (Object) getLandByChunk.invokeExact(sample.getWorld(), chunkX, chunkZ);
+        return land == null ? ChunkDecision.ALLOW : ChunkDecision.PER_BLOCK;
+    }
+}
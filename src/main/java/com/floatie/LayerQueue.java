@@ -0,0 +1,150 @@
+package com.floatie;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Blocks bucketed by Y layer and handed out from the highest layer down.
+ * Blocks may keep arriving while the queue is drained, so removal order needs
+ * no sort over the whole tree.
+ * <p>
+ * Each layer is a packed key array with a parallel array of material
+ * ordinals, drained as index ranges. Layers cover only the Y range the tree
+ * actually spans.
+ */
+public class LayerQueue {
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final long[] NO_KEYS = new long[0];
+    private static final short[] NO_TYPES = new short[0];
+
+    private long[][] keys = new long[0][];
+    private short[][] types = new short[0][];
+    private int[] sizes = new int[0];
+    private int[] taken = new int[0];
+    private int baseY;
+    private int top = -1;
+    private int remaining;
+
+    public void add(long key, Material type) {
+        int layer = layerFor(BlockKey.y(key));
+        int size = sizes[layer];
+
+        if (size == keys[layer].length) {
+            int capacity = Math.max(8, size << 1);
+            keys[layer] = Arrays.copyOf(keys[layer], capacity);
+            types[layer] = Arrays.copyOf(types[layer], capacity);
+        }
+
+        keys[layer][size] = key;
+        types[layer][size] = (short) type.ordinal();
+        sizes[layer] = size + 1;
+        remaining++;
+        if (layer > top) {
+            top = layer;
+        }
+    }
+
+    /**
+     * Hands up to {@code max} blocks from the highest non-empty layers to the
+     * visitor and returns how many were handed out.
+     */
+    public int drain(int max, BlockVisitor visitor) {
+        int drained = 0;
+
+        while (drained < max && top >= 0) {
+            int from = taken[top];
+            int to = Math.min(sizes[top], from + (max - drained));
+            if (from == to) {
+                top--;
+                continue;
+            }
+
+            long[] layerKeys = keys[top];
+            short[] layerTypes = types[top];
+            taken[top] = to;
+            for (int i = from; i < to; i++) {
+                visitor.visit(layerKeys[i], MATERIALS[layerTypes[i]]);
+            }
+            drained += to - from;
+        }
+
+        remaining -= drained;
+        return drained;
+    }
+
+    /**
+     * Visits the key of every block ever added, including those already handed out.
+     */
+    public void forEachKey(LongConsumer action) {
+        for (int layer = 0; layer < sizes.length; layer++) {
+            long[] layerKeys = keys[layer];
+            for (int i = 0; i < sizes[layer]; i++) {
+                action.accept(layerKeys[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return remaining;
+    }
+
+    public boolean isEmpty() {
+        return remaining == 0;
+    }
+
+    private int layerFor(int y) {
+        int count = sizes.length;
+        if (count == 0) {
+            baseY = y;
+            grow(0, 1);
+            return 0;
+        }
+
+        // Leave headroom so a tree found layer by layer does not regrow every time
+        if (y < baseY) {
+            int shift = baseY - y + (count >> 1);
+            grow(shift, count + shift);
+            baseY -= shift;
+            if (top >= 0) {
+                top += shift;
+            }
+        } else if (y - baseY >= count) {
+            grow(0, Math.max(y - baseY + 1, count + (count >> 1)));
+        }
+        return y - baseY;
+    }
+
+    /**
+     * Resizes the layer arrays to {@code length}, moving existing layers up by {@code shift}.
+     */
+    private void grow(int shift, int length) {
+        long[][] newKeys = new long[length][];
+        short[][] newTypes = new short[length][];
+        int[] newSizes = new int[length];
+        int[] newTaken = new int[length];
+
+        System.arraycopy(keys, 0, newKeys, shift, keys.length);
+        System.arraycopy(types, 0, newTypes, shift, types.length);
+        System.arraycopy(sizes, 0, newSizes, shift, sizes.length);
+        System.arraycopy(taken, 0, newTaken, shift, taken.length);
+
+        for (int i = 0; i < length; i++) {
+            if (newKeys[i] == null) {
+                newKeys[i] = NO_KEYS;
+                newTypes[i] = NO_TYPES;
+            }
+        }
+
+        keys = newKeys;
+        types = newTypes;
+        sizes = newSizes;
+        taken = newTaken;
+    }
+
+    public interface BlockVisitor {
+        void visit(long key, Material type);
+    }
+}
@@ -0,0 +1,39 @@
+package com.floatie;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+
+public class LiveBlockAccess implements BlockAccess {
+
+    private final World world;
+    private final int minHeight;
+    private final int maxHeight;
+
+    public LiveBlockAccess(World world) {
+        this.world = world;
+        this.minHeight = world.getMinHeight();
+        this.maxHeight = world.getMaxHeight();
+    }
+
+    @Override
+    public Material getType(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return Material.AIR;
+        }
+
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            return null;
+        }
+
+        return world.getBlockAt(x, y, z).getType();
+    }
+
+    @Override
+    public int getLeafDistance(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight || !world.isChunkLoaded(x >> 4, z >> 4)) {
+            return 0;
+        }
+
+        return BlockAccess.leafDistance(world.getBlockAt(x, y, z).getBlockData());
+    }
+}
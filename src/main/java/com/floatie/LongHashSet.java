@@ -0,0 +1,99 @@
+package com.floatie;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of primitive longs with linear probing. Cleared sets keep
+ * their table so a single instance can be reused across searches.
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        table = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int slot = mix(key) & mask;
+        long existing;
+        while ((existing = table[slot]) != EMPTY) {
+            if (existing == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = key;
+        if (++size > (table.length >> 1)) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsEmpty;
+        }
+
+        int slot = mix(key) & mask;
+        long existing;
+        while ((existing = table[slot]) != EMPTY) {
+            if (existing == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(table, EMPTY);
+            size = 0;
+            containsEmpty = false;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = table;
+        table = new long[newCapacity];
+        mask = newCapacity - 1;
+
+        for (long key : old) {
+            if (key == EMPTY) {
+                continue;
+            }
+            int slot = mix(key) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
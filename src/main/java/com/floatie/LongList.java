@@ -0,0 +1,43 @@
+package com.floatie;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive longs.
+ */
+public class LongList {
+
+    private long[] elements;
+    private int size;
+
+    public LongList(int initialCapacity) {
+        elements = new long[Math.max(4, initialCapacity)];
+    }
+
+    public void add(long value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length << 1);
+        }
+        elements[size++] = value;
+    }
+
+    public long get(int index) {
+        return elements[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,52 @@
+package com.floatie;
+
+/**
+ * Growable FIFO ring buffer of primitive longs.
+ */
+public class LongQueue {
+
+    private long[] elements;
+    private int head;
+    private int size;
+
+    public LongQueue(int initialCapacity) {
+        elements = new long[Integer.highestOneBit(Math.max(4, initialCapacity - 1)) << 1];
+    }
+
+    public void add(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    public long poll() {
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        long[] grown = new long[elements.length << 1];
+        int firstPart = elements.length - head;
+        System.arraycopy(elements, head, grown, 0, firstPart);
+        System.arraycopy(elements, 0, grown, firstPart, head);
+        elements = grown;
+        head = 0;
+    }
+}
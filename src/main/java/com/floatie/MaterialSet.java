@@ -0,0 +1,58 @@
+package com.floatie;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of materials backed by an ordinal-indexed boolean table.
+ */
+public final class MaterialSet {
+
+    private final boolean[] table;
+    private final int size;
+
+    private MaterialSet(boolean[] table, int size) {
+        this.table = table;
+        this.size = size;
+    }
+
+    public static MaterialSet of(Material... materials) {
+        return of(Arrays.asList(materials));
+    }
+
+    public static MaterialSet of(Collection<Material> materials) {
+        boolean[] table = new boolean[Material.values().length];
+        int size = 0;
+        for (Material material : materials) {
+            if (!table[material.ordinal()]) {
+                table[material.ordinal()] = true;
+                size++;
+            }
+        }
+        return new MaterialSet(table, size);
+    }
+
+    public boolean contains(Material material) {
+        return material != null && table[material.ordinal()];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MaterialSet set && Arrays.equals(table, set.table);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(table);
+    }
+}
@@ -0,0 +1,87 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Tracks Floatie's in-flight projectile entities by entity id, so foreign
+ * projectiles are rejected with one lookup and nothing is written to the
+ * server's metadata store. Entries whose entity died without a hit are swept
+ * once per second while the registry is non-empty.
+ */
+public class ProjectileRegistry {
+
+    private static final long SWEEP_INTERVAL_TICKS = 20L;
+
+    private final Floatie plugin;
+    private final LongObjectMap<InFlightAxe> axes = new LongObjectMap<>(16);
+    private BukkitTask sweepTask;
+
+    public ProjectileRegistry(Floatie plugin) {
+        this.plugin = plugin;
+    }
+
+    public void register(Projectile projectile, Player shooter, Material axeType, AxeRenderer.FlyingAxe visual) {
+        axes.put(projectile.getEntityId(), new InFlightAxe(projectile, shooter, axeType, visual));
+
+        if (sweepTask == null) {
+            sweepTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sweep, SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
+        }
+    }
+
+    /**
+     * Removes and returns the entry for a projectile, or {@code null} when it
+     * is not a Floatie axe.
+     */
+    public InFlightAxe remove(Projectile projectile) {
+        InFlightAxe axe = axes.remove(projectile.getEntityId());
+        if (axe != null && axe.projectile() != projectile) {
+            axes.put(projectile.getEntityId(), axe);
+            return null;
+        }
+        return axe;
+    }
+
+    public int size() {
+        return axes.size();
+    }
+
+    public void clear() {
+        axes.forEachValue(InFlightAxe::discard);
+        axes.clear();
+        stopSweep();
+    }
+
+    private void sweep() {
+        axes.removeIf(axe -> {
+            if (axe.projectile().isValid()) {
+                return false;
+            }
+            axe.discard();
+            return true;
+        });
+
+        if (axes.isEmpty()) {
+            stopSweep();
+        }
+    }
+
+    private void stopSweep() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+
+    public record InFlightAxe(Projectile projectile, Player shooter, Material axeType, AxeRenderer.FlyingAxe visual) {
+
+        void discard() {
+            if (visual != null) {
+                visual.release();
+            }
+        }
+    }
+}
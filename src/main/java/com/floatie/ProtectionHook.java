@@ -0,0 +1,35 @@
+package com.floatie;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * A protection plugin integration whose API has been resolved once into method
+ * handles. Implementations throw when the underlying plugin misbehaves; the
+ * check that threw is denied, the hook stays linked for the next one, and the
+ * failure is logged at most once a minute.
+ */
+public interface ProtectionHook {
+
+    MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    String getName();
+
+    boolean canBreak(Player player, Location location) throws Throwable;
+
+    /**
+     * Decides a whole chunk column at once, using {@code sample} (a candidate
+     * block inside the chunk) when the plugin needs a concrete location.
+     * Returns {@link ChunkDecision#PER_BLOCK} when the chunk crosses a claim
+     * border or the plugin cannot tell.
+     */
+    default ChunkDecision checkChunk(Player player, Location sample, int chunkX, int chunkZ) throws Throwable {
+        return ChunkDecision.PER_BLOCK;
+    }
+
+    enum ChunkDecision {
+        ALLOW, DENY, PER_BLOCK
+    }
+}
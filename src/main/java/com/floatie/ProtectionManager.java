@@ -1,16 +1,23 @@
 package com.floatie;
 
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
+import java.util.*;
+
 public class ProtectionManager {
 
+    private static final ProtectionHook[] NO_HOOKS = new ProtectionHook[0];
+    private static final long FAILURE_LOG_INTERVAL_NANOS = 60_000_000_000L;
+
     private final Floatie plugin;
-    private boolean worldGuardEnabled;
-    private boolean griefPreventionEnabled;
-    private boolean townyEnabled;
-    private boolean landsEnabled;
+    private final Map<ChunkKey, CachedChunk> chunkCache = new HashMap<>();
+    private final Map<ProtectionHook, FailureLog> failures = new IdentityHashMap<>();
+    private volatile ProtectionHook[] hooks = NO_HOOKS;
+    private long cacheTtlNanos = 1_000_000_000L;
+    private long nextPurge;
 
     public ProtectionManager(Floatie plugin) {
         this.plugin = plugin;
@@ -18,27 +25,40 @@ public class ProtectionManager {
     }
 
     private void detectPlugins() {
-        worldGuardEnabled = isPluginEnabled("WorldGuard");
-        griefPreventionEnabled = isPluginEnabled("GriefPrevention");
-        townyEnabled = isPluginEnabled("Towny");
-        landsEnabled = isPluginEnabled("Lands");
+        List<ProtectionHook> linked = new ArrayList<>();
+        boolean detected = false;
 
-        if (worldGuardEnabled) {
-            plugin.getLogger().info("✓ WorldGuard protection detected!");
+        if (isPluginEnabled("WorldGuard")) {
+            detected = true;
+            link(linked, "WorldGuard", WorldGuardHook::link);
         }
-        if (griefPreventionEnabled) {
-            plugin.getLogger().info("✓ GriefPrevention protection detected!");
+        if (isPluginEnabled("GriefPrevention")) {
+            detected = true;
+            link(linked, "GriefPrevention", GriefPreventionHook::link);
         }
-        if (townyEnabled) {
-            plugin.getLogger().info("✓ Towny protection detected!");
+        if (isPluginEnabled("Towny")) {
+            detected = true;
+            link(linked, "Towny", TownyHook::link);
         }
-        if (landsEnabled) {
-            plugin.getLogger().info("✓ Lands protection detected!");
+        if (isPluginEnabled("Lands")) {
+            detected = true;
+            link(linked, "Lands", () -> LandsHook.link(plugin));
         }
 
-        if (!worldGuardEnabled && !griefPreventionEnabled && !townyEnabled && !landsEnabled) {
+        if (!detected) {
             plugin.getLogger().info("No protection plugins detected - running without protection checks");
         }
+
+        hooks = linked.toArray(new ProtectionHook[0]);
+    }
+
+    private void link(List<ProtectionHook> linked, String pluginName, HookLinker linker) {
+        try {
+            linked.add(linker.link());
+            plugin.getLogger().info("✓ " + pluginName + " protection detected!");
+        } catch (Exception | LinkageError e) {
+            plugin.getLogger().warning(pluginName + " detected but its API could not be linked, protection hook disabled: " + e);
+        }
     }
 
     private boolean isPluginEnabled(String pluginName) {
@@ -46,141 +66,168 @@ public class ProtectionManager {
         return targetPlugin != null && targetPlugin.isEnabled();
     }
 
+    public void setCacheTicks(int ticks) {
+        cacheTtlNanos = Math.max(0, ticks) * 50_000_000L;
+        chunkCache.clear();
+    }
+
     public boolean canBreak(Player player, Location location) {
         if (player == null) {
             return false;
         }
 
-        if (worldGuardEnabled && !checkWorldGuard(player, location)) {
-            return false;
-        }
+        ProtectionHook[] remaining = resolveChunk(player, location, location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        return remaining != null && checkHooks(remaining, player, location);
+    }
 
-        if (griefPreventionEnabled && !checkGriefPrevention(player, location)) {
-            return false;
+    /**
+     * Checks a whole candidate set of packed block keys at once. Hooks are asked
+     * once per distinct chunk and only re-checked per block where a chunk
+     * crosses a claim border.
+     */
+    public boolean[] canBreakAll(Player player, World world, long[] keys) {
+        boolean[] allowed = new boolean[keys.length];
+        if (player == null || keys.length == 0) {
+            return allowed;
         }
 
-        if (townyEnabled && !checkTowny(player, location)) {
-            return false;
-        }
+        long currentChunk = 0L;
+        ProtectionHook[] remaining = null;
+        boolean resolved = false;
 
-        if (landsEnabled && !checkLands(player, location)) {
-            return false;
+        for (int i = 0; i < keys.length; i++) {
+            int x = BlockKey.x(keys[i]);
+            int z = BlockKey.z(keys[i]);
+            long chunk = chunkKey(x >> 4, z >> 4);
+
+            if (!resolved || chunk != currentChunk) {
+                remaining = resolveChunk(player, new Location(world, x, BlockKey.y(keys[i]), z), x >> 4, z >> 4);
+                currentChunk = chunk;
+                resolved = true;
+            }
+
+            if (remaining == null) {
+                continue;
+            }
+
+            allowed[i] = remaining.length == 0
+                    || checkHooks(remaining, player, new Location(world, x, BlockKey.y(keys[i]), z));
         }
 
-        return true;
+        return allowed;
     }
 
-    private boolean checkWorldGuard(Player player, Location location) {
-        try {
-            Class<?> adapterClass = Class.forName("com.sk89q.worldedit.bukkit.BukkitAdapter");
-            Class<?> worldGuardClass = Class.forName("com.sk89q.worldguard.WorldGuard");
-            Class<?> flagsClass = Class.forName("com.sk89q.worldguard.protection.flags.Flags");
-            Class<?> wgPluginClass = Class.forName("com.sk89q.worldguard.bukkit.WorldGuardPlugin");
-
-            Object wgInstance = worldGuardClass.getMethod("getInstance").invoke(null);
-            Object platform = wgInstance.getClass().getMethod("getPlatform").invoke(wgInstance);
-            Object regionContainer = platform.getClass().getMethod("getRegionContainer").invoke(platform);
-            Object query = regionContainer.getClass().getMethod("createQuery").invoke(regionContainer);
-
-            Object adaptedLoc = adapterClass.getMethod("adapt", Location.class).invoke(null, location);
-            Object wgPlugin = wgPluginClass.getMethod("inst").invoke(null);
-            Object wrappedPlayer = wgPlugin.getClass().getMethod("wrapPlayer", Player.class).invoke(wgPlugin, player);
-            Object blockBreakFlag = flagsClass.getField("BLOCK_BREAK").get(null);
-
-            Boolean result = (Boolean) query.getClass()
-                    .getMethod("testState",
-                            Class.forName("com.sk89q.worldedit.util.Location"),
-                            Class.forName("com.sk89q.worldguard.LocalPlayer"),
-                            Class.forName("com.sk89q.worldguard.protection.flags.StateFlag"))
-                    .invoke(query, adaptedLoc, wrappedPlayer, blockBreakFlag);
-
-            return result != null ? result : true;
-        } catch (Exception e) {
-            return true;
+    /**
+     * Returns the hooks that still need a per-block check inside the chunk, an
+     * empty array when the whole chunk is allowed, or {@code null} when it is denied.
+     */
+    private ProtectionHook[] resolveChunk(Player player, Location sample, int chunkX, int chunkZ) {
+        ProtectionHook[] current = hooks;
+        if (current.length == 0) {
+            return current;
         }
-    }
 
-    private boolean checkGriefPrevention(Player player, Location location) {
-        try {
-            Class<?> gpClass = Class.forName("me.ryanhamshire.GriefPrevention.GriefPrevention");
-            Object gpInstance = gpClass.getField("instance").get(null);
-            Object dataStore = gpClass.getField("dataStore").get(gpInstance);
-
-            Object claim = dataStore.getClass()
-                    .getMethod("getClaimAt", Location.class, boolean.class,
-                            Class.forName("me.ryanhamshire.GriefPrevention.Claim"))
-                    .invoke(dataStore, location, false, null);
-
-            if (claim != null) {
-                String denial = (String) claim.getClass()
-                        .getMethod("allowBreak", Player.class,
-                                Class.forName("org.bukkit.Material"))
-                        .invoke(claim, player, location.getBlock().getType());
-                return denial == null;
-            }
-        } catch (Exception e) {
-            return true;
+        long now = System.nanoTime();
+        ChunkKey key = new ChunkKey(player.getUniqueId(), sample.getWorld().getUID(), chunkKey(chunkX, chunkZ));
+        CachedChunk cached = chunkCache.get(key);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            return cached.remaining();
         }
-        return true;
-    }
 
-    private boolean checkTowny(Player player, Location location) {
-        try {
-            Class<?> townyAPIClass = Class.forName("com.palmergames.bukkit.towny.TownyAPI");
-            Object townyAPI = townyAPIClass.getMethod("getInstance").invoke(null);
+        purgeExpired(now);
 
-            Boolean isWilderness = (Boolean) townyAPIClass
-                    .getMethod("isWilderness", Location.class)
-                    .invoke(townyAPI, location);
+        List<ProtectionHook> perBlock = new ArrayList<>();
+        ProtectionHook[] remaining = NO_HOOKS;
+        boolean failed = false;
 
-            if (isWilderness != null && !isWilderness) {
-                Object townBlock = townyAPIClass
-                        .getMethod("getTownBlock", Location.class)
-                        .invoke(townyAPI, location);
+        for (ProtectionHook hook : current) {
+            try {
+                ProtectionHook.ChunkDecision decision = hook.checkChunk(player, sample, chunkX, chunkZ);
+                if (decision == ProtectionHook.ChunkDecision.DENY) {
+                    remaining = null;
+                    break;
+                }
+                if (decision == ProtectionHook.ChunkDecision.PER_BLOCK) {
+                    perBlock.add(hook);
+                }
+            } catch (Throwable t) {
+                reportFailure(hook, t);
+                remaining = null;
+                failed = true;
+                break;
+            }
+        }
 
-                if (townBlock != null) {
-                    Class<?> actionTypeClass = Class.forName("com.palmergames.bukkit.towny.object.TownyPermission$ActionType");
-                    Object destroyAction = actionTypeClass.getField("DESTROY").get(null);
+        if (remaining != null && !perBlock.isEmpty()) {
+            remaining = perBlock.toArray(NO_HOOKS);
+        }
 
-                    Boolean allowed = (Boolean) townyAPIClass
-                            .getMethod("isActionAllowedInLocation", Player.class, Location.class, actionTypeClass)
-                            .invoke(townyAPI, player, location, destroyAction);
+        // A failed check may pass next time, so its denial is not cached
+        if (cacheTtlNanos > 0 && !failed) {
+            chunkCache.put(key, new CachedChunk(remaining, now + cacheTtlNanos));
+        }
+        return remaining;
+    }
 
-                    return allowed != null ? allowed : false;
+    private boolean checkHooks(ProtectionHook[] remaining, Player player, Location location) {
+        for (ProtectionHook hook : remaining) {
+            try {
+                if (!hook.canBreak(player, location)) {
+                    return false;
                 }
+            } catch (Throwable t) {
+                reportFailure(hook, t);
+                return false;
             }
-        } catch (Exception e) {
-            return true;
         }
+
         return true;
     }
 
-    private boolean checkLands(Player player, Location location) {
-        try {
-            Class<?> landsIntegrationClass = Class.forName("me.angeschossen.lands.api.integration.LandsIntegration");
-            Object landsAPI = landsIntegrationClass
-                    .getMethod("of", Plugin.class)
-                    .invoke(null, plugin);
-
-            Object area = landsAPI.getClass()
-                    .getMethod("getArea", Location.class)
-                    .invoke(landsAPI, location);
-
-            if (area != null) {
-                Class<?> flagsClass = Class.forName("me.angeschossen.lands.api.flags.type.Flags");
-                Object blockBreakFlag = flagsClass.getField("BLOCK_BREAK").get(null);
-
-                Boolean hasFlag = (Boolean) area.getClass()
-                        .getMethod("hasFlag", Player.class,
-                                Class.forName("me.angeschossen.lands.api.flags.type.RoleFlag"),
-                                boolean.class)
-                        .invoke(area, player, blockBreakFlag, false);
-
-                return hasFlag != null ? hasFlag : false;
-            }
-        } catch (Exception e) {
-            return true;
+    private void purgeExpired(long now) {
+        if (now - nextPurge < 0) {
+            return;
         }
-        return true;
+
+        chunkCache.values().removeIf(cached -> cached.expiresAt() - now <= 0);
+        nextPurge = now + Math.max(cacheTtlNanos, 1_000_000_000L);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A hook that throws denies that check but stays linked, since the
+     * failure may be transient. Failures are logged at most once a minute per
+     * hook, with a count of the ones left out.
+     */
+    private void reportFailure(ProtectionHook hook, Throwable cause) {
+        long now = System.nanoTime();
+        FailureLog log = failures.computeIfAbsent(hook, h -> new FailureLog());
+        if (log.logged && now - log.nextLogAt < 0) {
+            log.suppressed++;
+            return;
+        }
+
+        String suppressed = log.suppressed > 0 ? " (" + log.suppressed + " more failures since the last report)" : "";
+        plugin.getLogger().warning(hook.getName() + " protection check failed, denying the block" + suppressed + ": " + cause);
+        log.logged = true;
+        log.suppressed = 0;
+        log.nextLogAt = now + FAILURE_LOG_INTERVAL_NANOS;
+    }
+
+    private interface HookLinker {
+        ProtectionHook link() throws Exception;
+    }
+
+    private record ChunkKey(UUID playerId, UUID worldId, long chunk) {}
+
+    private record CachedChunk(ProtectionHook[] remaining, long expiresAt) {}
+
+    private static final class FailureLog {
+        boolean logged;
+        long nextLogAt;
+        int suppressed;
     }
-}
\ No newline at end of file
+}
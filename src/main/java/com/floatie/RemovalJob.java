@@ -0,0 +1,263 @@
+package com.floatie;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+public class RemovalJob {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id = NEXT_ID.incrementAndGet();
+    private final World world;
+    private final Player owner;
+    private final LayerQueue leaves;
+    private final LayerQueue logs;
+    private final DiscoveryStream stream;
+    private final int blocksPerTick;
+    private final long delayTicks;
+    private final DropAggregator drops;
+    private final BatchEffects effects;
+    private final TokenBucket limiter;
+    private final JournalRecorder journal;
+    private final LongList boundary = new LongList(16);
+    private final LongList interior = new LongList(16);
+    private int settled;
+    private int blockCount;
+    private int allowance;
+    private long ticksUntilNext;
+    private int batchBlocks;
+    private long batchNanos;
+
+    /**
+     * @param owner         the player whose axe started the job, or {@code null}
+     * @param stream        the async search still feeding this job, or
+     *                      {@code null} when all blocks are added up front
+     * @param blocksPerTick per-job pacing cap, or 0 to let the job use as much
+     *                      of the shared tick budget as it can get
+     * @param drops         collects the job's drops, or {@code null} when each
+     *                      block drops its own items
+     * @param effects       coalesces break effects per tick, or {@code null}
+     *                      when effects are disabled
+     * @param limiter       the owner's block-rate limiter, or {@code null}
+     * @param journal       records removed blocks for undo, or {@code null}
+     *                      when the undo journal is disabled
+     */
+    public RemovalJob(World world, Player owner, DiscoveryStream stream, int blocksPerTick, long delayTicks,
+                      DropAggregator drops, BatchEffects effects, TokenBucket limiter, JournalRecorder journal) {
+        this.world = world;
+        this.owner = owner;
+        this.leaves = new LayerQueue();
+        this.logs = new LayerQueue();
+        this.stream = stream;
+        this.blocksPerTick = blocksPerTick;
+        this.delayTicks = Math.max(1L, delayTicks);
+        this.drops = drops;
+        this.effects = effects;
+        this.limiter = limiter;
+        this.journal = journal;
+        this.ticksUntilNext = 1L;
+    }
+
+    /**
+     * Makes sure new job IDs are above {@code usedId}, e.g. one found in the
+     * undo journal from an earlier run.
+     */
+    static void reserveIds(long usedId) {
+        NEXT_ID.accumulateAndGet(usedId, Math::max);
+    }
+
+    void add(long key, Material type, boolean leaf) {
+        (leaf ? leaves : logs).add(key, type);
+        blockCount++;
+    }
+
+    void startTick() {
+        if (--ticksUntilNext > 0) {
+            allowance = 0;
+            return;
+        }
+
+        ticksUntilNext = delayTicks;
+        allowance = blocksPerTick > 0 ? blocksPerTick : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Removes leaves from the top layer down, then logs the same way. Logs
+     * wait until the search has finished so no leaves are left floating.
+     */
+    int process(int maxBlocks, BlockCleaner blockCleaner) {
+        boolean logsReady = isDiscovered();
+        int available = leaves.size() + (logsReady ? logs.size() : 0);
+        int toProcess = Math.min(Math.min(maxBlocks, allowance), available);
+        if (limiter != null) {
+            toProcess = Math.min(toProcess, limiter.available());
+            limiter.consume(toProcess);
+        }
+
+        LayerQueue.BlockVisitor remover = (key, type) -> blockCleaner.removeQueued(this, key, type);
+        int fromLeaves = leaves.drain(toProcess, remover);
+        if (fromLeaves < toProcess) {
+            logs.drain(toProcess - fromLeaves, remover);
+        }
+
+        allowance -= toProcess;
+        batchBlocks += toProcess;
+        return toProcess;
+    }
+
+    /**
+     * Adds time the scheduler spent in {@link #process} to the current batch.
+     */
+    void addRemovalTime(long nanos) {
+        batchNanos += nanos;
+    }
+
+    /**
+     * Queues a block on the job's outer boundary to be cleared with physics by
+     * the next {@link #flushBoundary}.
+     */
+    void deferBoundary(long key) {
+        boundary.add(key);
+    }
+
+    /**
+     * Remembers a block cleared without physics because all its neighbours
+     * belonged to the job.
+     */
+    void clearedInterior(long key) {
+        interior.add(key);
+    }
+
+    /**
+     * Sends the updates that interior blocks skipped to the neighbours still
+     * standing, for a job that stops before removing them; otherwise leaves
+     * next to a silently removed log would never decay. Bukkit cannot update
+     * a block's neighbours directly, so the air is set to cave air with
+     * physics and back without.
+     *
+     * @return {@code true} once every interior block is settled, or
+     *         {@code false} if the deadline passed first and the rest is left
+     *         for the next call
+     */
+    boolean settleInterior(long deadline) {
+        while (settled < interior.size()) {
+            long key = interior.get(settled++);
+            int x = BlockKey.x(key);
+            int y = BlockKey.y(key);
+            int z = BlockKey.z(key);
+
+            for (int[] dir : BlockKey.DIRECT_NEIGHBORS) {
+                if (!world.getBlockAt(x + dir[0], y + dir[1], z + dir[2]).getType().isAir()) {
+                    Block block = world.getBlockAt(x, y, z);
+                    if (block.getType() == Material.AIR) {
+                        block.setType(Material.CAVE_AIR, true);
+                        block.setType(Material.AIR, false);
+                    }
+                    break;
+                }
+            }
+
+            if (System.nanoTime() >= deadline) {
+                return settled == interior.size();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clears the boundary blocks removed since the last call, which runs the
+     * neighbour and physics updates for them. The scheduler calls this at the
+     * end of each slice so the physics counts against the tick budget.
+     */
+    void flushBoundary() {
+        for (int i = 0; i < boundary.size(); i++) {
+            long key = boundary.get(i);
+            world.getBlockAt(BlockKey.x(key), BlockKey.y(key), BlockKey.z(key)).setType(Material.AIR, true);
+        }
+        boundary.clear();
+    }
+
+    /**
+     * Clears any boundary blocks still pending, then plays the batch's effects.
+     */
+    void endBatch() {
+        FellingEvents.RemovalBatchEvent event = new FellingEvents.RemovalBatchEvent();
+        event.begin();
+
+        flushBoundary();
+
+        if (effects != null) {
+            effects.flush();
+        }
+
+        if (batchBlocks > 0 && event.shouldCommit()) {
+            event.describe(id, owner, world);
+            event.blocks = batchBlocks;
+            event.removalTime = batchNanos;
+            event.remaining = getRemainingBlocks();
+            event.commit();
+        }
+        batchBlocks = 0;
+        batchNanos = 0L;
+    }
+
+    /**
+     * Visits every block the job has taken on, removed or not.
+     */
+    void forEachKey(LongConsumer action) {
+        leaves.forEachKey(action);
+        logs.forEachKey(action);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    Player getOwner() {
+        return owner;
+    }
+
+    World getWorld() {
+        return world;
+    }
+
+    DiscoveryStream getStream() {
+        return stream;
+    }
+
+    DropAggregator getDrops() {
+        return drops;
+    }
+
+    BatchEffects getEffects() {
+        return effects;
+    }
+
+    JournalRecorder getJournal() {
+        return journal;
+    }
+
+    /**
+     * Blocks taken on so far, removed or not.
+     */
+    int getBlockCount() {
+        return blockCount;
+    }
+
+    private boolean isDiscovered() {
+        return stream == null || stream.isDrained();
+    }
+
+    public boolean isDone() {
+        return isDiscovered() && leaves.isEmpty() && logs.isEmpty();
+    }
+
+    public int getRemainingBlocks() {
+        return leaves.size() + logs.size();
+    }
+}
@@ -0,0 +1,105 @@
+package com.floatie;
+
+/**
+ * Additive-increase / multiplicative-decrease controller for the number of
+ * blocks all removal jobs may change per tick.
+ * <p>
+ * The main input is the removal cost the scheduler measures: the time the
+ * last batch took against the per-tick removal budget. That shows headroom
+ * shrinking before a tick runs long, so the controller backs off as the cost
+ * nears the budget instead of after the server has already fallen behind.
+ * On Paper the real MSPT is used as well; plain Spigot has no MSPT, and the
+ * tick interval only grows once a tick has overrun, so there it is used for
+ * pausing alone.
+ */
+public class RemovalRateController {
+
+    /**
+     * Share of the tick budget a batch may use before the budget is cut.
+     */
+    private static final double BACKOFF_UTILISATION = 0.9;
+    /**
+     * Share of the tick budget, or of max-mspt, above which the budget stops growing.
+     */
+    private static final double HOLD_RATIO = 0.75;
+    /**
+     * Weight of the newest batch in the cost-per-block average.
+     */
+    private static final double COST_SMOOTHING = 0.2;
+
+    private final TickMonitor tickMonitor;
+    private int minBlocks;
+    private int maxBlocks;
+    private double increasePerTick;
+    private double backoffFactor;
+    private double maxMspt;
+    private double pauseMspt;
+    private double budget;
+    private double nanosPerBlock;
+    private long lastBatchNanos;
+    private int lastRemoved;
+
+    public RemovalRateController(TickMonitor tickMonitor) {
+        this.tickMonitor = tickMonitor;
+    }
+
+    public void configure(int minBlocks, int maxBlocks, double increasePerTick, double backoffFactor,
+                          double maxMspt, double pauseMspt) {
+        this.minBlocks = Math.max(1, minBlocks);
+        this.maxBlocks = Math.max(this.minBlocks, maxBlocks);
+        this.increasePerTick = Math.max(0.0, increasePerTick);
+        this.backoffFactor = Math.min(0.95, Math.max(0.05, backoffFactor));
+        this.maxMspt = maxMspt;
+        this.pauseMspt = pauseMspt;
+        this.budget = this.minBlocks;
+        this.nanosPerBlock = 0.0;
+        this.lastBatchNanos = 0L;
+        this.lastRemoved = 0;
+    }
+
+    /**
+     * Reports what the last tick's batch removed and how long it took.
+     */
+    public void recordBatch(int removed, long batchNanos) {
+        lastRemoved = removed;
+        lastBatchNanos = batchNanos;
+        if (removed > 0) {
+            double cost = (double) batchNanos / removed;
+            nanosPerBlock = nanosPerBlock == 0.0 ? cost : nanosPerBlock + COST_SMOOTHING * (cost - nanosPerBlock);
+        }
+    }
+
+    /**
+     * Returns the block budget for the current tick, adjusted by how much of
+     * the tick budget the previous batch used.
+     */
+    public int nextBudget(long tickBudgetNanos) {
+        double utilisation = (double) lastBatchNanos / tickBudgetNanos;
+        double mspt = tickMonitor.hasMspt() ? tickMonitor.getMspt() : 0.0;
+
+        if (utilisation >= BACKOFF_UTILISATION || mspt >= maxMspt) {
+            backOff();
+        } else if (utilisation < HOLD_RATIO && mspt < maxMspt * HOLD_RATIO && lastRemoved >= (int) budget) {
+            // Only grow a budget that was used up; an idle budget says nothing about headroom
+            budget = Math.min(maxBlocks, budget + increasePerTick);
+        }
+
+        if (nanosPerBlock > 0.0) {
+            budget = Math.max(minBlocks, Math.min(budget, tickBudgetNanos * BACKOFF_UTILISATION / nanosPerBlock));
+        }
+        return (int) budget;
+    }
+
+    public void backOff() {
+        budget = Math.max(minBlocks, budget * backoffFactor);
+    }
+
+    public boolean shouldPause() {
+        double load = tickMonitor.hasMspt() ? tickMonitor.getMspt() : tickMonitor.getInterval1s();
+        return load > pauseMspt;
+    }
+
+    public int getCurrentBudget() {
+        return (int) budget;
+    }
+}
@@ -0,0 +1,241 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Owns every active removal job and drains them round-robin from a single
+ * repeating task, bounded by a shared nanosecond budget per tick.
+ */
+public class RemovalScheduler {
+
+    private static final int SLICE_SIZE = 8;
+
+    private final Floatie plugin;
+    private final BlockCleaner blockCleaner;
+    private final List<RemovalJob> jobs = new ArrayList<>();
+    private final List<RemovalJob> settling = new ArrayList<>();
+    private BukkitTask task;
+    private int cursor;
+    private long tickBudgetNanos;
+    private RemovalRateController rateController;
+    private TokenBucket serverLimiter;
+
+    public RemovalScheduler(Floatie plugin, BlockCleaner blockCleaner) {
+        this.plugin = plugin;
+        this.blockCleaner = blockCleaner;
+    }
+
+    public void setTickBudgetNanos(long tickBudgetNanos) {
+        this.tickBudgetNanos = Math.max(100_000L, tickBudgetNanos);
+    }
+
+    /**
+     * Enables adaptive mode with the given controller, or restores static
+     * pacing when {@code null}. Adaptive mode pauses jobs under load instead
+     * of cancelling them.
+     */
+    public void setRateController(RemovalRateController rateController) {
+        this.rateController = rateController;
+    }
+
+    /**
+     * Caps blocks removed per second across all jobs, or lifts the cap when {@code null}.
+     */
+    public void setServerLimiter(TokenBucket serverLimiter) {
+        this.serverLimiter = serverLimiter;
+    }
+
+    public RemovalRateController getRateController() {
+        return rateController;
+    }
+
+    public void submit(RemovalJob job) {
+        if (job.isDone()) {
+            complete(job);
+            return;
+        }
+
+        jobs.add(job);
+
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    public int getActiveJobs() {
+        return jobs.size();
+    }
+
+    public int getQueuedBlocks() {
+        int queued = 0;
+        for (RemovalJob job : jobs) {
+            queued += job.getRemainingBlocks();
+        }
+        return queued;
+    }
+
+    /**
+     * Cancels every job and settles their interiors before returning, for
+     * shutdown.
+     */
+    public void cancelAll() {
+        cancelJobs();
+        for (RemovalJob job : settling) {
+            job.settleInterior(Long.MAX_VALUE);
+        }
+        settling.clear();
+        stop();
+    }
+
+    private void cancelJobs() {
+        for (RemovalJob job : jobs) {
+            complete(job);
+        }
+        jobs.clear();
+        cursor = 0;
+    }
+
+    private void tick() {
+        RemovalRateController controller = rateController;
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        settle(deadline);
+        if (jobs.isEmpty()) {
+            stopIfIdle();
+            return;
+        }
+
+        if (controller != null && (!blockCleaner.canClean() || controller.shouldPause())) {
+            controller.backOff();
+            return;
+        }
+
+        if (!blockCleaner.canClean()) {
+            for (RemovalJob job : jobs) {
+                FellingEvents.JobCancelledEvent event = new FellingEvents.JobCancelledEvent();
+                if (event.shouldCommit()) {
+                    event.describe(job.getId(), job.getOwner(), job.getWorld());
+                    event.remaining = job.getRemainingBlocks();
+                    event.tps = plugin.getTickMonitor().getTps1m();
+                    event.commit();
+                }
+            }
+            cancelJobs();
+            stopIfIdle();
+            return;
+        }
+
+        int blockBudget = controller != null ? controller.nextBudget(tickBudgetNanos) : Integer.MAX_VALUE;
+        TokenBucket limiter = serverLimiter;
+        if (limiter != null) {
+            blockBudget = Math.min(blockBudget, limiter.available());
+        }
+        int removed = 0;
+
+        for (RemovalJob job : jobs) {
+            blockCleaner.admitDiscovered(job);
+            job.startTick();
+        }
+
+        long batchStarted = System.nanoTime();
+        long now = batchStarted;
+        int idle = 0;
+        while (!jobs.isEmpty() && idle < jobs.size() && removed < blockBudget) {
+            if (cursor >= jobs.size()) {
+                cursor = 0;
+            }
+
+            RemovalJob job = jobs.get(cursor);
+            int processed = job.process(Math.min(SLICE_SIZE, blockBudget - removed), blockCleaner);
+            job.flushBoundary();
+            removed += processed;
+            long sliceEnded = System.nanoTime();
+            job.addRemovalTime(sliceEnded - now);
+            now = sliceEnded;
+
+            if (job.isDone()) {
+                jobs.remove(cursor);
+                complete(job);
+                now = System.nanoTime();
+                idle = 0;
+            } else {
+                cursor++;
+                idle = processed == 0 ? idle + 1 : 0;
+            }
+
+            if (now >= deadline) {
+                break;
+            }
+        }
+
+        if (limiter != null) {
+            limiter.consume(removed);
+        }
+        if (controller != null) {
+            controller.recordBatch(removed, now - batchStarted);
+        }
+
+        for (RemovalJob job : jobs) {
+            job.endBatch();
+        }
+
+        if (removed > 0) {
+            plugin.getMetrics().record(FloatieMetrics.Stage.REMOVAL_BATCH, System.nanoTime() - batchStarted, removed);
+        }
+
+        stopIfIdle();
+    }
+
+    /**
+     * Settles cancelled jobs' interiors, oldest first, until the deadline.
+     */
+    private void settle(long deadline) {
+        while (!settling.isEmpty() && System.nanoTime() < deadline) {
+            if (!settling.get(0).settleInterior(deadline)) {
+                return;
+            }
+            settling.remove(0);
+        }
+    }
+
+    /**
+     * Clears the job's last boundary blocks, delivers its drops and journals
+     * what it removed. Called when the job completes or is cancelled; a
+     * cancelled job's interior is settled over the following ticks.
+     */
+    private void complete(RemovalJob job) {
+        job.endBatch();
+        if (!job.isDone()) {
+            settling.add(job);
+        }
+
+        DropAggregator drops = job.getDrops();
+        if (drops != null) {
+            long started = System.nanoTime();
+            drops.flush();
+            plugin.getMetrics().record(FloatieMetrics.Stage.DROPS, System.nanoTime() - started, 0);
+        }
+
+        JournalRecorder journal = job.getJournal();
+        if (journal != null && !journal.isEmpty()) {
+            blockCleaner.getUndoJournal().append(journal.toEntry(job.getId(), job.getOwner(), job.getWorld()));
+        }
+        blockCleaner.getBlockClaims().release(job);
+    }
+
+    private void stopIfIdle() {
+        if (jobs.isEmpty() && settling.isEmpty()) {
+            stop();
+        }
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
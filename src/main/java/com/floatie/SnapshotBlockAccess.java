@@ -0,0 +1,81 @@
+package com.floatie;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class SnapshotBlockAccess implements BlockAccess {
+
+    /**
+     * Chunks around the hit captured up front, at least 32 blocks in every
+     * direction; even the largest trees fit in them.
+     */
+    private static final int CAPTURE_RADIUS = 2;
+
+    /**
+     * Captured chunks; a {@code null} value marks a chunk that was not loaded.
+     */
+    private final Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+    private final int minHeight;
+    private final int maxHeight;
+
+    private SnapshotBlockAccess(World world) {
+        this.minHeight = world.getMinHeight();
+        this.maxHeight = world.getMaxHeight();
+    }
+
+    /**
+     * Captures the loaded chunks around the given block column, up to
+     * {@code chunkRadius} but no further than {@link #CAPTURE_RADIUS}. Chunks
+     * outside the capture read as unavailable, so the search stops at them
+     * instead of waiting on the main thread. Must be called on the main
+     * thread; chunks are never loaded.
+     */
+    public static SnapshotBlockAccess capture(World world, int blockX, int blockZ, int chunkRadius) {
+        SnapshotBlockAccess access = new SnapshotBlockAccess(world);
+        int centerX = blockX >> 4;
+        int centerZ = blockZ >> 4;
+        int radius = Math.min(CAPTURE_RADIUS, chunkRadius);
+
+        for (int cx = centerX - radius; cx <= centerX + radius; cx++) {
+            for (int cz = centerZ - radius; cz <= centerZ + radius; cz++) {
+                ChunkSnapshot snapshot = world.isChunkLoaded(cx, cz)
+                        ? world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false)
+                        : null;
+                access.snapshots.put(chunkKey(cx, cz), snapshot);
+            }
+        }
+        return access;
+    }
+
+    @Override
+    public Material getType(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return Material.AIR;
+        }
+
+        ChunkSnapshot snapshot = snapshots.get(chunkKey(x >> 4, z >> 4));
+        if (snapshot == null) {
+            return null;
+        }
+
+        return snapshot.getBlockType(x & 15, y, z & 15);
+    }
+
+    @Override
+    public int getLeafDistance(int x, int y, int z) {
+        if (y < minHeight || y >= maxHeight) {
+            return 0;
+        }
+
+        ChunkSnapshot snapshot = snapshots.get(chunkKey(x >> 4, z >> 4));
+        return snapshot == null ? 0 : BlockAccess.leafDistance(snapshot.getBlockData(x & 15, y, z & 15));
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
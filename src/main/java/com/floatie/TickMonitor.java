@@ -0,0 +1,216 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/**
+ * Measures the interval between server ticks with a repeating task and
+ * {@link System#nanoTime()}, which gives TPS. Averages and percentiles are
+ * recomputed once per second so readers only touch cached fields.
+ * <p>
+ * The interval is not MSPT: a server that keeps up ticks every 50 ms however
+ * little work each tick does, so it only shows overruns. Real tick time
+ * (MSPT) is read from Paper's {@code getAverageTickTime()} when the server
+ * provides it, and is unavailable on plain Spigot.
+ */
+public class TickMonitor {
+
+    private static final int WINDOW_1S = 20;
+    private static final int WINDOW_10S = 200;
+    private static final int WINDOW_1M = 1200;
+    private static final double IDEAL_INTERVAL = 50.0;
+
+    private final Floatie plugin;
+    private final long[] samples = new long[WINDOW_1M];
+    private final long[] sortBuffer = new long[WINDOW_1M];
+    private final MethodHandle averageTickTime;
+    private BukkitTask task;
+    private long lastTickNanos;
+    private int head;
+    private int count;
+    private int sinceRecompute;
+
+    private volatile double interval1s = IDEAL_INTERVAL;
+    private volatile double interval10s = IDEAL_INTERVAL;
+    private volatile double interval1m = IDEAL_INTERVAL;
+    private volatile double p50 = IDEAL_INTERVAL;
+    private volatile double p95 = IDEAL_INTERVAL;
+    private volatile double p99 = IDEAL_INTERVAL;
+    private volatile double lastInterval = IDEAL_INTERVAL;
+    private volatile double mspt = Double.NaN;
+
+    public TickMonitor(Floatie plugin) {
+        this(plugin, findAverageTickTime(plugin.getServer()));
+    }
+
+    /**
+     * @param averageTickTime Paper's MSPT getter, or {@code null} when the
+     *                        server has none; tests pass {@code null} for plain Spigot
+     */
+    TickMonitor(Floatie plugin, MethodHandle averageTickTime) {
+        this.plugin = plugin;
+        this.averageTickTime = averageTickTime;
+    }
+
+    /**
+     * Binds Paper's {@code Server#getAverageTickTime()}, or returns {@code null} on servers without it.
+     */
+    private static MethodHandle findAverageTickTime(Server server) {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(server.getClass(), "getAverageTickTime", MethodType.methodType(double.class))
+                    .bindTo(server);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    public void start() {
+        if (task != null) {
+            return;
+        }
+
+        lastTickNanos = 0L;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        if (lastTickNanos != 0L) {
+            long duration = now - lastTickNanos;
+            samples[head] = duration;
+            head = (head + 1) % WINDOW_1M;
+            if (count < WINDOW_1M) {
+                count++;
+            }
+
+            lastInterval = duration / 1_000_000.0;
+            if (++sinceRecompute >= WINDOW_1S) {
+                sinceRecompute = 0;
+                recompute();
+            }
+        }
+        lastTickNanos = now;
+    }
+
+    private void recompute() {
+        interval1s = average(WINDOW_1S);
+        interval10s = average(WINDOW_10S);
+        interval1m = average(WINDOW_1M);
+        mspt = readMspt();
+
+        int n = count;
+        for (int i = 0; i < n; i++) {
+            sortBuffer[i] = samples[(head - 1 - i + WINDOW_1M) % WINDOW_1M];
+        }
+        Arrays.sort(sortBuffer, 0, n);
+        p50 = percentile(n, 0.50);
+        p95 = percentile(n, 0.95);
+        p99 = percentile(n, 0.99);
+    }
+
+    private double average(int window) {
+        int n = Math.min(window, count);
+        if (n == 0) {
+            return IDEAL_INTERVAL;
+        }
+
+        long total = 0L;
+        for (int i = 0; i < n; i++) {
+            total += samples[(head - 1 - i + WINDOW_1M) % WINDOW_1M];
+        }
+        return total / (double) n / 1_000_000.0;
+    }
+
+    private double percentile(int n, double fraction) {
+        if (n == 0) {
+            return IDEAL_INTERVAL;
+        }
+        int index = Math.min(n - 1, (int) Math.ceil(fraction * n) - 1);
+        return sortBuffer[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private double readMspt() {
+        if (averageTickTime == null) {
+            return Double.NaN;
+        }
+
+        try {
+            return (double) averageTickTime.invokeExact();
+        } catch (Throwable e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Whether real tick time is available, i.e. the server is Paper or a fork of it.
+     */
+    public boolean hasMspt() {
+        return averageTickTime != null;
+    }
+
+    /**
+     * Average work time of the last 100 ticks in ms, as reported by Paper, or
+     * {@code NaN} when the server does not report it.
+     */
+    public double getMspt() {
+        return mspt;
+    }
+
+    public double getLastInterval() {
+        return lastInterval;
+    }
+
+    public double getInterval1s() {
+        return interval1s;
+    }
+
+    public double getInterval10s() {
+        return interval10s;
+    }
+
+    public double getInterval1m() {
+        return interval1m;
+    }
+
+    public double getIntervalPercentile50() {
+        return p50;
+    }
+
+    public double getIntervalPercentile95() {
+        return p95;
+    }
+
+    public double getIntervalPercentile99() {
+        return p99;
+    }
+
+    public double getTps1s() {
+        return toTps(interval1s);
+    }
+
+    public double getTps10s() {
+        return toTps(interval10s);
+    }
+
+    public double getTps1m() {
+        return toTps(interval1m);
+    }
+
+    private static double toTps(double interval) {
+        return Math.min(20.0, 1000.0 / Math.max(interval, 1.0));
+    }
+}
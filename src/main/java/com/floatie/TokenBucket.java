@@ -0,0 +1,46 @@
+package com.floatie;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Block-rate limiter that refills continuously on the monotonic clock and
+ * holds at most one second worth of tokens. Main thread only.
+ */
+public class TokenBucket {
+
+    private final LongSupplier clock;
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double tokensPerSecond) {
+        this(tokensPerSecond, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosecond time source, replaced in tests
+     */
+    TokenBucket(double tokensPerSecond, LongSupplier clock) {
+        this.clock = clock;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+        this.capacity = Math.max(1.0, tokensPerSecond);
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    public int available() {
+        refill();
+        return (int) tokens;
+    }
+
+    public void consume(int amount) {
+        tokens -= amount;
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,81 @@
+package com.floatie;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+public final class TownyHook implements ProtectionHook {
+
+    private final MethodHandle isWilderness;
+    private final MethodHandle getTownBlock;
+    private final MethodHandle isDestroyAllowed;
+    private final boolean chunkAligned;
+
+    private TownyHook(MethodHandle isWilderness, MethodHandle getTownBlock, MethodHandle isDestroyAllowed, boolean chunkAligned) {
+        this.isWilderness = isWilderness;
+        this.getTownBlock = getTownBlock;
+        this.isDestroyAllowed = isDestroyAllowed;
+        this.chunkAligned = chunkAligned;
+    }
+
+    public static TownyHook link() throws ReflectiveOperationException {
+        Class<?> townyAPIClass = Class.forName("com.palmergames.bukkit.towny.TownyAPI");
+        Class<?> actionTypeClass = Class.forName("com.palmergames.bukkit.towny.object.TownyPermission$ActionType");
+        Object townyAPI = townyAPIClass.getMethod("getInstance").invoke(null);
+        Object destroyAction = actionTypeClass.getField("DESTROY").get(null);
+
+        MethodHandle wilderness = LOOKUP.unreflect(townyAPIClass.getMethod("isWilderness", Location.class))
+                .bindTo(townyAPI)
+                .asType(MethodType.methodType(boolean.class, Location.class));
+        MethodHandle townBlock = LOOKUP.unreflect(townyAPIClass.getMethod("getTownBlock", Location.class))
+                .bindTo(townyAPI)
+                .asType(MethodType.methodType(Object.class, Location.class));
+        MethodHandle destroyAllowed = MethodHandles.insertArguments(
+                        LOOKUP.unreflect(townyAPIClass.getMethod("isActionAllowedInLocation", Player.class, Location.class, actionTypeClass))
+                                .bindTo(townyAPI), 2, destroyAction)
+                .asType(MethodType.methodType(boolean.class, Player.class, Location.class));
+
+        boolean chunkAligned;
+        try {
+            Object size = Class.forName("com.palmergames.bukkit.towny.TownySettings")
+                    .getMethod("getTownBlockSize")
+                    .invoke(null);
+            chunkAligned = size instanceof Integer && (Integer) size == 16;
+        } catch (ReflectiveOperationException e) {
+            chunkAligned = false;
+        }
+
+        return new TownyHook(wilderness, townBlock, destroyAllowed, chunkAligned);
+    }
+
+    @Override
+    public String getName() {
+        return "Towny";
+    }
+
+    @Override
+    public boolean canBreak(Player player, Location location) throws Throwable {
+        if ((boolean) isWilderness.invokeExact(location)) {
+            return true;
+        }
+
+        Object townBlock = (Object) getTownBlock.invokeExact(location);
+        if (townBlock == null) {
+            return true;
+        }
+
+        return (boolean) isDestroyAllowed.invokeExact(player, location);
+    }
+
+    @Override
+    public ChunkDecision checkChunk(Player player, Location sample, int chunkX, int chunkZ) throws Throwable {
+        if (!chunkAligned) {
+            return ChunkDecision.PER_BLOCK;
+        }
+
+        return canBreak(player, sample) ? ChunkDecision.ALLOW : ChunkDecision.DENY;
+    }
+}
@@ -0,0 +1,689 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Optional index of connected log components in loaded chunks. Chunks are
+ * scanned from snapshots off the main thread when they load, their logs are
+ * merged into components across chunk borders on the main thread, and block
+ * events keep the index current. A hit on an indexed tree resolves its logs
+ * without a search.
+ * <p>
+ * A component that may have split after a block was removed is marked stale
+ * and left to the regular scan. Stale components are rebuilt from the logs
+ * they still hold before anything is added next to them, and components that
+ * lose a chunk to an unload are rebuilt from the rest straight away.
+ * <p>
+ * Some changes fire no event, e.g. another plugin calling {@code setType}, so
+ * a lookup checks each log of the component against the world before trusting it.
+ */
+public class TreeIndex implements Listener {
+
+    /**
+     * Chunks snapshotted per tick while the index is first built.
+     */
+    private static final int CHUNKS_PER_TICK = 8;
+    /**
+     * Ticks a piston needs before moved blocks have settled at their destination.
+     */
+    private static final long PISTON_SETTLE_TICKS = 3L;
+
+    private final Floatie plugin;
+    private final Map<UUID, WorldIndex> worlds = new HashMap<>();
+    private final ArrayDeque<Chunk> backlog = new ArrayDeque<>();
+    private BukkitTask backlogTask;
+    private MaterialSet logTypes;
+    private boolean enabled;
+
+    public TreeIndex(Floatie plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Rebuilds the index when it is switched on or the log types change, and
+     * drops it when switched off. The loaded chunks are snapshotted a few per
+     * tick; until a chunk is reached, trees touching it fall back to the
+     * regular scan.
+     */
+    public void configure(boolean enabled, MaterialSet logTypes) {
+        if (enabled == this.enabled && logTypes.equals(this.logTypes)) {
+            return;
+        }
+
+        this.enabled = enabled;
+        this.logTypes = logTypes;
+        worlds.clear();
+        backlog.clear();
+
+        if (enabled) {
+            for (World world : Bukkit.getWorlds()) {
+                backlog.addAll(Arrays.asList(world.getLoadedChunks()));
+            }
+        }
+
+        if (backlog.isEmpty()) {
+            stopBacklog();
+        } else if (backlogTask == null) {
+            backlogTask = Bukkit.getScheduler().runTaskTimer(plugin, this::indexBacklog, 1L, 1L);
+        }
+    }
+
+    /**
+     * Returns the packed keys of every log connected to the block, or
+     * {@code null} if the tree is not indexed, is stale, has changed without
+     * an event, or exceeds the limits the regular scan would apply.
+     */
+    public long[] lookup(Block block, int maxBlocks, int maxDistance) {
+        if (!enabled) {
+            return null;
+        }
+
+        World world = block.getWorld();
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return null;
+        }
+
+        Component component = index.blocks.get(BlockKey.pack(block.getX(), block.getY(), block.getZ()));
+        if (component == null || component.stale || component.type != block.getType()
+                || component.blocks.size() > maxBlocks) {
+            return null;
+        }
+
+        if (component.distanceFrom(block.getX(), block.getY(), block.getZ()) > maxDistance
+                || !index.isComplete(world, component)) {
+            return null;
+        }
+
+        long[] keys = component.blocks.toArray();
+        boolean changed = false;
+        for (long key : keys) {
+            int x = BlockKey.x(key);
+            int y = BlockKey.y(key);
+            int z = BlockKey.z(key);
+            Material type = world.getBlockAt(x, y, z).getType();
+            if (type != component.type) {
+                removeLog(world, x, y, z);
+                if (logTypes.contains(type)) {
+                    addLog(world, x, y, z, type);
+                }
+                changed = true;
+            }
+        }
+        return changed ? null : keys;
+    }
+
+    public int getIndexedLogs() {
+        int logs = 0;
+        for (WorldIndex index : worlds.values()) {
+            logs += index.blocks.size();
+        }
+        return logs;
+    }
+
+    /**
+     * Called for blocks Floatie removes itself, which fire no events.
+     */
+    void blockRemoved(Block block) {
+        if (enabled) {
+            removeLog(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    /**
+     * Called for blocks Floatie puts back itself, e.g. by {@code /floatie undo}.
+     */
+    void blockPlaced(Block block) {
+        if (enabled && logTypes.contains(block.getType())) {
+            addLog(block.getWorld(), block.getX(), block.getY(), block.getZ(), block.getType());
+        }
+    }
+
+    private void indexBacklog() {
+        int indexed = 0;
+        while (indexed < CHUNKS_PER_TICK && !backlog.isEmpty()) {
+            Chunk chunk = backlog.poll();
+            if (!chunk.isLoaded()) {
+                continue;
+            }
+
+            // Chunks that loaded again since the backlog was built are indexed already
+            WorldIndex index = worlds.get(chunk.getWorld().getUID());
+            if (index == null || index.chunks.get(chunkKey(chunk.getX(), chunk.getZ())) == null) {
+                indexChunk(chunk);
+                indexed++;
+            }
+        }
+
+        if (backlog.isEmpty()) {
+            stopBacklog();
+        }
+    }
+
+    private void stopBacklog() {
+        if (backlogTask != null) {
+            backlogTask.cancel();
+            backlogTask = null;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (enabled) {
+            indexChunk(event.getChunk());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        Chunk chunk = event.getChunk();
+        WorldIndex index = worlds.get(chunk.getWorld().getUID());
+        if (index != null) {
+            index.dropChunk(chunkKey(chunk.getX(), chunk.getZ()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worlds.remove(event.getWorld().getUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        blockPlaced(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        blockRemoved(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        blockRemoved(event.getBlock());
+    }
+
+    /**
+     * Covers axe stripping, which swaps a log for its stripped variant, as well
+     * as mobs and falling blocks changing logs.
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        Block block = event.getBlock();
+        Material from = block.getType();
+        Material to = event.getTo();
+        if (!enabled || from == to) {
+            return;
+        }
+
+        if (logTypes.contains(from)) {
+            removeLog(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        }
+        if (logTypes.contains(to)) {
+            addLog(block.getWorld(), block.getX(), block.getY(), block.getZ(), to);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        removeAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        removeAll(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        refreshMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        refreshMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        for (BlockState state : event.getBlocks()) {
+            if (logTypes.contains(state.getType())) {
+                addLog(event.getWorld(), state.getX(), state.getY(), state.getZ(), state.getType());
+            }
+        }
+    }
+
+    private void removeAll(List<Block> blocks) {
+        if (!enabled) {
+            return;
+        }
+
+        for (Block block : blocks) {
+            removeLog(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    /**
+     * Pushed logs are rare, so they leave the index at once and the chunks
+     * they left and entered are scanned again once the piston has finished;
+     * until then the blocks are {@code MOVING_PISTON}. Which way
+     * {@code getDirection()} points on retraction has differed between server
+     * versions, so the chunks on both sides are covered.
+     */
+    private void refreshMoved(List<Block> blocks, BlockFace direction) {
+        if (!enabled || blocks.isEmpty()) {
+            return;
+        }
+
+        World world = blocks.get(0).getWorld();
+        LongList chunkKeys = new LongList(4);
+        LongHashSet seen = new LongHashSet(8);
+        for (Block block : blocks) {
+            if (!logTypes.contains(block.getType())) {
+                continue;
+            }
+
+            removeLog(world, block.getX(), block.getY(), block.getZ());
+            for (int step = -1; step <= 1; step++) {
+                long key = chunkKey((block.getX() + step * direction.getModX()) >> 4,
+                        (block.getZ() + step * direction.getModZ()) >> 4);
+                if (seen.add(key)) {
+                    chunkKeys.add(key);
+                }
+            }
+        }
+
+        if (chunkKeys.isEmpty()) {
+            return;
+        }
+
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            WorldIndex index = worlds.get(world.getUID());
+            if (!enabled || index == null) {
+                return;
+            }
+
+            for (int i = 0; i < chunkKeys.size(); i++) {
+                long key = chunkKeys.get(i);
+                int chunkX = (int) (key >> 32);
+                int chunkZ = (int) key;
+                if (index.chunks.get(key) != null && world.isChunkLoaded(chunkX, chunkZ)) {
+                    indexChunk(world.getChunkAt(chunkX, chunkZ));
+                }
+            }
+        }, PISTON_SETTLE_TICKS);
+    }
+
+    private void addLog(World world, int x, int y, int z, Material type) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return;
+        }
+
+        ChunkEntry entry = index.chunks.get(chunkKey(x >> 4, z >> 4));
+        if (entry == null) {
+            return;
+        }
+
+        if (entry.logs == null) {
+            entry.dirty = true;
+            return;
+        }
+
+        long key = BlockKey.pack(x, y, z);
+        if (index.add(key, type)) {
+            entry.logs.add(key);
+        }
+    }
+
+    private void removeLog(World world, int x, int y, int z) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return;
+        }
+
+        ChunkEntry entry = index.chunks.get(chunkKey(x >> 4, z >> 4));
+        if (entry != null && entry.logs == null) {
+            entry.dirty = true;
+            return;
+        }
+
+        Component component = index.blocks.remove(BlockKey.pack(x, y, z));
+        if (component != null) {
+            component.stale = true;
+        }
+    }
+
+    private void indexChunk(Chunk chunk) {
+        World world = chunk.getWorld();
+        WorldIndex index = worlds.computeIfAbsent(world.getUID(), id -> new WorldIndex());
+        long key = chunkKey(chunk.getX(), chunk.getZ());
+
+        ChunkEntry entry = new ChunkEntry();
+        index.dropChunk(key);
+        index.chunks.put(key, entry);
+        scanAsync(world, chunk, key, entry);
+    }
+
+    private void scanAsync(World world, Chunk chunk, long key, ChunkEntry entry) {
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        MaterialSet types = logTypes;
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            ChunkScan scan = scanSnapshot(snapshot, minY, maxY, types);
+
+            if (!plugin.isEnabled()) {
+                return;
+            }
+
+            Bukkit.getScheduler().runTask(plugin, () -> apply(world, chunk, key, entry, scan));
+        });
+    }
+
+    private void apply(World world, Chunk chunk, long key, ChunkEntry entry, ChunkScan scan) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null || index.chunks.get(key) != entry) {
+            return;
+        }
+
+        // Blocks changed while the snapshot was being scanned
+        if (entry.dirty) {
+            entry.dirty = false;
+            scanAsync(world, chunk, key, entry);
+            return;
+        }
+
+        entry.logs = new LongList(Math.max(16, scan.keys().length));
+        for (int i = 0; i < scan.keys().length; i++) {
+            if (index.add(scan.keys()[i], scan.types()[i])) {
+                entry.logs.add(scan.keys()[i]);
+            }
+        }
+    }
+
+    private static ChunkScan scanSnapshot(ChunkSnapshot snapshot, int minY, int maxY, MaterialSet types) {
+        LongList keys = new LongList(64);
+        Material[] found = new Material[64];
+        int baseX = snapshot.getX() << 4;
+        int baseZ = snapshot.getZ() << 4;
+
+        for (int sectionY = minY; sectionY < maxY; sectionY += 16) {
+            if (snapshot.isSectionEmpty((sectionY - minY) >> 4)) {
+                continue;
+            }
+
+            int top = Math.min(sectionY + 16, maxY);
+            for (int y = sectionY; y < top; y++) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        Material type = snapshot.getBlockType(x, y, z);
+                        if (!types.contains(type)) {
+                            continue;
+                        }
+
+                        if (keys.size() == found.length) {
+                            found = Arrays.copyOf(found, found.length << 1);
+                        }
+                        found[keys.size()] = type;
+                        keys.add(BlockKey.pack(baseX + x, y, baseZ + z));
+                    }
+                }
+            }
+        }
+
+        return new ChunkScan(keys.toArray(), Arrays.copyOf(found, keys.size()));
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private record ChunkScan(long[] keys, Material[] types) {}
+
+    /**
+     * Per-chunk bookkeeping. {@code logs} is {@code null} until the first scan lands.
+     */
+    private static final class ChunkEntry {
+        LongList logs;
+        boolean dirty;
+    }
+
+    private static final class Component {
+        final Material type;
+        final LongList blocks = new LongList(16);
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        boolean stale;
+
+        Component(Material type) {
+            this.type = type;
+        }
+
+        void add(long key) {
+            blocks.add(key);
+            int x = BlockKey.x(key);
+            int y = BlockKey.y(key);
+            int z = BlockKey.z(key);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+
+        /**
+         * Largest per-axis distance from the point to the bounding box corners,
+         * matching the box radius the scanner enforces.
+         */
+        int distanceFrom(int x, int y, int z) {
+            int dx = Math.max(Math.abs(minX - x), Math.abs(maxX - x));
+            int dy = Math.max(Math.abs(minY - y), Math.abs(maxY - y));
+            int dz = Math.max(Math.abs(minZ - z), Math.abs(maxZ - z));
+            return Math.max(dx, Math.max(dy, dz));
+        }
+    }
+
+    private static final class WorldIndex {
+        final LongObjectMap<Component> blocks = new LongObjectMap<>(1024);
+        final LongObjectMap<ChunkEntry> chunks = new LongObjectMap<>(256);
+
+        /**
+         * Indexes a log and joins it to the components next to it. Returns
+         * {@code false} if the log was indexed already.
+         */
+        boolean add(long key, Material type) {
+            Component existing = blocks.get(key);
+            if (existing != null) {
+                if (existing.type == type) {
+                    return false;
+                }
+                blocks.remove(key);
+                existing.stale = true;
+            }
+
+            Component target = null;
+            int x = BlockKey.x(key);
+            int y = BlockKey.y(key);
+            int z = BlockKey.z(key);
+
+            for (int[] dir : BlockKey.DIRECT_NEIGHBORS) {
+                long neighborKey = BlockKey.pack(x + dir[0], y + dir[1], z + dir[2]);
+                Component neighbor = blocks.get(neighborKey);
+                if (neighbor == null || neighbor.type != type) {
+                    continue;
+                }
+                if (neighbor.stale) {
+                    // Never grow a stale component; rebuild it from the logs it still holds
+                    rebuild(neighbor);
+                    neighbor = blocks.get(neighborKey);
+                }
+                if (neighbor != target) {
+                    target = target == null ? neighbor : merge(target, neighbor);
+                }
+            }
+
+            if (target == null) {
+                target = new Component(type);
+            }
+
+            blocks.put(key, target);
+            target.add(key);
+            return true;
+        }
+
+        /**
+         * Splits a component back into fresh connected components made of the
+         * logs still mapped to it.
+         */
+        private void rebuild(Component component) {
+            LongHashSet remaining = new LongHashSet(component.blocks.size());
+            LongList keys = new LongList(component.blocks.size());
+            for (int i = 0; i < component.blocks.size(); i++) {
+                long key = component.blocks.get(i);
+                if (blocks.get(key) == component && remaining.add(key)) {
+                    keys.add(key);
+                }
+            }
+
+            for (int i = 0; i < keys.size(); i++) {
+                blocks.remove(keys.get(i));
+            }
+
+            LongQueue queue = new LongQueue(64);
+            for (int i = 0; i < keys.size(); i++) {
+                long start = keys.get(i);
+                if (blocks.get(start) != null) {
+                    continue;
+                }
+
+                Component fresh = new Component(component.type);
+                blocks.put(start, fresh);
+                fresh.add(start);
+                queue.add(start);
+                while (!queue.isEmpty()) {
+                    long key = queue.poll();
+                    int x = BlockKey.x(key);
+                    int y = BlockKey.y(key);
+                    int z = BlockKey.z(key);
+                    for (int[] dir : BlockKey.DIRECT_NEIGHBORS) {
+                        long neighbor = BlockKey.pack(x + dir[0], y + dir[1], z + dir[2]);
+                        if (remaining.contains(neighbor) && blocks.get(neighbor) == null) {
+                            blocks.put(neighbor, fresh);
+                            fresh.add(neighbor);
+                            queue.add(neighbor);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Relabels the smaller component into the larger one.
+         */
+        private Component merge(Component a, Component b) {
+            if (a.blocks.size() < b.blocks.size()) {
+                Component swap = a;
+                a = b;
+                b = swap;
+            }
+
+            for (int i = 0; i < b.blocks.size(); i++) {
+                long key = b.blocks.get(i);
+                // Stale components may still list blocks they have lost
+                if (blocks.get(key) == b) {
+                    blocks.put(key, a);
+                    a.add(key);
+                }
+            }
+
+            a.stale |= b.stale;
+            return a;
+        }
+
+        /**
+         * Forgets a chunk and its logs. Components that reached into the chunk
+         * are rebuilt from their logs elsewhere, which the regular scan would
+         * find as well, since it stops at unloaded chunks.
+         */
+        void dropChunk(long key) {
+            ChunkEntry entry = chunks.remove(key);
+            if (entry == null || entry.logs == null) {
+                return;
+            }
+
+            List<Component> affected = new ArrayList<>();
+            for (int i = 0; i < entry.logs.size(); i++) {
+                Component component = blocks.remove(entry.logs.get(i));
+                if (component != null && !affected.contains(component)) {
+                    affected.add(component);
+                }
+            }
+
+            for (Component component : affected) {
+                rebuild(component);
+            }
+        }
+
+        /**
+         * Whether every loaded chunk the component could extend into has been
+         * scanned; unloaded chunks stop the regular scan as well.
+         */
+        boolean isComplete(World world, Component component) {
+            for (int chunkX = (component.minX - 1) >> 4; chunkX <= (component.maxX + 1) >> 4; chunkX++) {
+                for (int chunkZ = (component.minZ - 1) >> 4; chunkZ <= (component.maxZ + 1) >> 4; chunkZ++) {
+                    ChunkEntry entry = chunks.get(chunkKey(chunkX, chunkZ));
+                    if (entry != null ? entry.logs == null : world.isChunkLoaded(chunkX, chunkZ)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.floatie;
+
+import org.bukkit.Material;
+
+import java.util.Arrays;
+
+/**
+ * Flood-fill engine for log and leaf discovery. Instances are thread-confined
+ * and keep their buffers between searches; use {@link #get()}.
+ */
+public class TreeScanner {
+
+    private static final int STREAM_BATCH = 64;
+    private static final int MAX_LEAF_DISTANCE = 7;
+
+    private static final ThreadLocal<TreeScanner> LOCAL = ThreadLocal.withInitial(TreeScanner::new);
+
+    private final LongHashSet visited = new LongHashSet(1024);
+    private final LongQueue queue = new LongQueue(256);
+    private final LongList logs = new LongList(256);
+    private final LongList leaves = new LongList(256);
+    private Material[] leafTypes = new Material[256];
+
+    private BlockAccess access;
+    private BlockFilter filter;
+    private ScanSink sink;
+    private int published;
+    private int maxBlocks;
+    private int maxDistance;
+    private int originX;
+    private int originY;
+    private int originZ;
+    private ScanTimings lastTimings = ScanTimings.NONE;
+
+    private TreeScanner() {
+    }
+
+    public static TreeScanner get() {
+        return LOCAL.get();
+    }
+
+    public ScanResult scan(BlockAccess access, BlockFilter filter, int x, int y, int z,
+                           int maxBlocks, int maxLeafDistance, int maxDistance) {
+        return scan(access, filter, null, x, y, z, maxBlocks, maxLeafDistance, maxDistance);
+    }
+
+    /**
+     * @param maxLeafDistance how far from the logs to follow leaves, in leaf
+     *                        {@code distance} steps (1-7); 0 finds no leaves
+     * @param sink receives the logs once they are all found and then the leaves
+     *             in small batches as the search goes; the returned result is
+     *             empty when a sink is given
+     */
+    public ScanResult scan(BlockAccess access, BlockFilter filter, ScanSink sink, int x, int y, int z,
+                           int maxBlocks, int maxLeafDistance, int maxDistance) {
+        Material targetMaterial = access.getType(x, y, z);
+        if (targetMaterial == null) {
+            lastTimings = ScanTimings.NONE;
+            return ScanResult.EMPTY;
+        }
+
+        begin(access, filter, sink, x, y, z, maxBlocks, maxDistance);
+        try {
+            long started = System.nanoTime();
+            findConnectedLogs(x, y, z, targetMaterial);
+            publishLogs(targetMaterial);
+            long logsFound = System.nanoTime();
+            findAttachedLeaves(maxLeafDistance);
+            ScanResult result = result(targetMaterial);
+            lastTimings = new ScanTimings(logsFound - started, logs.size(), System.nanoTime() - logsFound, leaves.size());
+            return result;
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Finds the leaves of a tree whose logs are already known, e.g. from the
+     * {@link TreeIndex}.
+     */
+    public ScanResult scanLeaves(BlockAccess access, BlockFilter filter, ScanSink sink, long[] knownLogs, Material logType,
+                                 int x, int y, int z, int maxBlocks, int maxLeafDistance, int maxDistance) {
+        begin(access, filter, sink, x, y, z, maxBlocks, maxDistance);
+        try {
+            long started = System.nanoTime();
+            for (long log : knownLogs) {
+                visited.add(log);
+                logs.add(log);
+            }
+            publishLogs(logType);
+            long logsFound = System.nanoTime();
+            findAttachedLeaves(maxLeafDistance);
+            ScanResult result = result(logType);
+            lastTimings = new ScanTimings(logsFound - started, logs.size(), System.nanoTime() - logsFound, leaves.size());
+            return result;
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * How long the log and leaf phases of this thread's last search took.
+     */
+    public ScanTimings getLastTimings() {
+        return lastTimings;
+    }
+
+    private void begin(BlockAccess access, BlockFilter filter, ScanSink sink, int x, int y, int z,
+                       int maxBlocks, int maxDistance) {
+        this.access = access;
+        this.filter = filter;
+        this.sink = sink;
+        this.maxBlocks = maxBlocks;
+        this.maxDistance = maxDistance;
+        this.originX = x;
+        this.originY = y;
+        this.originZ = z;
+    }
+
+    private ScanResult result(Material logType) {
+        if (sink != null) {
+            publishLeaves();
+            return ScanResult.EMPTY;
+        }
+        return new ScanResult(logs.toArray(), logType, leaves.toArray(), Arrays.copyOf(leafTypes, leaves.size()));
+    }
+
+    private void findConnectedLogs(int x, int y, int z, Material targetMaterial) {
+        long start = BlockKey.pack(x, y, z);
+        queue.add(start);
+        visited.add(start);
+
+        while (!queue.isEmpty() && logs.size() < maxBlocks) {
+            long current = queue.poll();
+            int cx = BlockKey.x(current);
+            int cy = BlockKey.y(current);
+            int cz = BlockKey.z(current);
+
+            if (filter != null && !filter.accept(cx, cy, cz)) {
+                continue;
+            }
+
+            logs.add(current);
+
+            for (int[] dir : BlockKey.DIRECT_NEIGHBORS) {
+                int nx = cx + dir[0];
+                int ny = cy + dir[1];
+                int nz = cz + dir[2];
+
+                if (!withinRadius(nx, ny, nz)) {
+                    continue;
+                }
+
+                long key = BlockKey.pack(nx, ny, nz);
+                if (visited.contains(key) || access.getType(nx, ny, nz) != targetMaterial) {
+                    continue;
+                }
+
+                visited.add(key);
+                queue.add(key);
+            }
+        }
+
+        queue.clear();
+    }
+
+    /**
+     * Follows leaves outward from the logs one {@code distance} step at a
+     * time. A leaf is only taken from a neighbour one step closer to the logs,
+     * and not if it also touches a log or a closer leaf the search has not
+     * reached, so persistent leaves and leaves held up by another tree are
+     * left alone: only leaves that would decay once the logs are gone are found.
+     */
+    private void findAttachedLeaves(int maxLeafDistance) {
+        if (logs.isEmpty() || maxLeafDistance <= 0) {
+            return;
+        }
+
+        for (int i = 0; i < logs.size(); i++) {
+            long log = logs.get(i);
+            queueLeaves(BlockKey.x(log), BlockKey.y(log), BlockKey.z(log), 1);
+        }
+
+        int distance = 1;
+        int remainingInLayer = queue.size();
+        while (!queue.isEmpty() && leaves.size() < maxBlocks) {
+            if (remainingInLayer == 0) {
+                distance++;
+                remainingInLayer = queue.size();
+            }
+
+            long current = queue.poll();
+            remainingInLayer--;
+            int cx = BlockKey.x(current);
+            int cy = BlockKey.y(current);
+            int cz = BlockKey.z(current);
+
+            if (filter != null && !filter.accept(cx, cy, cz)) {
+                continue;
+            }
+
+            Material type = access.getType(cx, cy, cz);
+            if (leaves.size() == leafTypes.length) {
+                leafTypes = Arrays.copyOf(leafTypes, leafTypes.length << 1);
+            }
+            leafTypes[leaves.size()] = type;
+            leaves.add(current);
+
+            if (sink != null && leaves.size() - published >= STREAM_BATCH) {
+                publishLeaves();
+            }
+
+            if (distance < Math.min(maxLeafDistance, MAX_LEAF_DISTANCE)) {
+                queueLeaves(cx, cy, cz, distance + 1);
+            }
+        }
+    }
+
+    /**
+     * Queues the neighbouring leaves that are exactly {@code distance} from the
+     * nearest log and not held up by another tree.
+     */
+    private void queueLeaves(int x, int y, int z, int distance) {
+        for (int[] dir : BlockKey.DIRECT_NEIGHBORS) {
+            int nx = x + dir[0];
+            int ny = y + dir[1];
+            int nz = z + dir[2];
+
+            long key = BlockKey.pack(nx, ny, nz);
+            if (visited.contains(key) || !withinRadius(nx, ny, nz)) {
+                continue;
+            }
+
+            Material type = access.getType(nx, ny, nz);
+            if (type == null || !BlockCleaner.LEAF_TYPES.contains(type) || access.getLeafDistance(nx, ny, nz) != distance
+                    || heldElsewhere(nx, ny, nz, distance)) {
+                continue;
+            }
+
+            visited.add(key);
+            queue.add(key);
+        }
+    }
+
+    /**
+     * Whether the leaf at the given position touches a log or a leaf closer
+     * than {@code distance} that this search has not reached. Where canopies
+     * overlap, such a leaf keeps its distance from the other tree once these
+     * logs are gone. Leaves skipped here are not marked visited, so the leaves
+     * beyond them are skipped too.
+     */
+    private boolean heldElsewhere(int x, int y, int z, int distance) {
+        for (int[] dir : BlockKey.DIRECT_NEIGHBORS) {
+            int nx = x + dir[0];
+            int ny = y + dir[1];
+            int nz = z + dir[2];
+            if (visited.contains(BlockKey.pack(nx, ny, nz))) {
+                continue;
+            }
+
+            if (distance == 1) {
+                if (BlockCleaner.LOG_TYPES.contains(access.getType(nx, ny, nz))) {
+                    return true;
+                }
+            } else {
+                int neighborDistance = access.getLeafDistance(nx, ny, nz);
+                if (neighborDistance > 0 && neighborDistance < distance) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void publishLogs(Material logType) {
+        if (sink == null || logs.isEmpty()) {
+            return;
+        }
+
+        Material[] types = new Material[logs.size()];
+        Arrays.fill(types, logType);
+        sink.accept(logs.toArray(), types, false);
+    }
+
+    private void publishLeaves() {
+        int count = leaves.size() - published;
+        if (count == 0) {
+            return;
+        }
+
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = leaves.get(published + i);
+        }
+        sink.accept(keys, Arrays.copyOfRange(leafTypes, published, leaves.size()), true);
+        published = leaves.size();
+    }
+
+    private boolean withinRadius(int x, int y, int z) {
+        return Math.abs(x - originX) <= maxDistance
+                && Math.abs(y - originY) <= maxDistance
+                && Math.abs(z - originZ) <= maxDistance;
+    }
+
+    private void reset() {
+        visited.clear();
+        queue.clear();
+        logs.clear();
+        Arrays.fill(leafTypes, 0, leaves.size(), null);
+        leaves.clear();
+        access = null;
+        filter = null;
+        sink = null;
+        published = 0;
+    }
+
+    public interface BlockFilter {
+        boolean accept(int x, int y, int z);
+    }
+
+    /**
+     * Receives discovered blocks while a search is still running. Called on the
+     * scanning thread; arrays are owned by the receiver.
+     */
+    public interface ScanSink {
+        void accept(long[] keys, Material[] types, boolean leaves);
+    }
+
+    public record ScanTimings(long logNanos, int logs, long leafNanos, int leaves) {
+        static final ScanTimings NONE = new ScanTimings(0L, 0, 0L, 0);
+    }
+
+    /**
+     * Packed block keys of the discovered logs and leaves, in discovery order.
+     */
+    public record ScanResult(long[] logs, Material logType, long[] leaves, Material[] leafTypes) {
+
+        static final ScanResult EMPTY = new ScanResult(new long[0], null, new long[0], new Material[0]);
+
+        public boolean isEmpty() {
+            return logs.length == 0;
+        }
+    }
+}
@@ -0,0 +1,560 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of every block Floatie removed, one record per job, so
+ * {@code /floatie undo} can put a tree back. Records go into fixed-size
+ * memory-mapped segment files in {@code plugins/Floatie/undo}; when one is
+ * full the next is started and the oldest beyond the limit is deleted.
+ * <p>
+ * Encoding, writing and lookups run on a single journal thread, which owns
+ * the segments and the in-memory list of journaled jobs.
+ */
+public class UndoJournal {
+
+    private static final int JOB_RECORD = 0x464A4F42;
+    private static final int UNDO_RECORD = 0x46554E44;
+    private static final int HEADER_BYTES = 8;
+    /**
+     * Job record fields before the player name: job ID, time, UUID and block count.
+     */
+    private static final int JOB_FIXED_BYTES = Long.BYTES * 4 + Integer.BYTES;
+    /**
+     * Bytes read per job record when scanning; enough for any Minecraft name.
+     */
+    private static final int JOB_PREFIX_BYTES = JOB_FIXED_BYTES + Short.BYTES + 48;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Floatie plugin;
+    private final Path directory;
+    private final UndoRestorer restorer;
+    private final List<JobHeader> jobs = new ArrayList<>();
+    private ExecutorService writer;
+    private volatile int segmentBytes;
+    private volatile int maxSegments;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private Path activeSegment;
+    private int activeSequence;
+
+    public UndoJournal(Floatie plugin, BlockCleaner blockCleaner) {
+        this.plugin = plugin;
+        this.directory = plugin.getDataFolder().toPath().resolve("undo");
+        this.restorer = new UndoRestorer(plugin, blockCleaner);
+    }
+
+    /**
+     * Opens the journal, or closes it when {@code settings} is {@code null}.
+     * Opening reads the headers of the existing segments on the calling thread
+     * so job IDs carry on from the last run.
+     */
+    public void configure(FloatieSettings.JournalSettings settings, long tickBudgetNanos) {
+        restorer.setTickBudgetNanos(tickBudgetNanos);
+        if (settings == null) {
+            close();
+            return;
+        }
+
+        segmentBytes = settings.segmentBytes();
+        maxSegments = settings.maxSegments();
+        if (writer != null) {
+            return;
+        }
+
+        try {
+            open();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not open the undo journal, felled trees will not be journaled", e);
+            closeSegment();
+            jobs.clear();
+            return;
+        }
+
+        writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "Floatie Undo Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Queues a finished job for writing.
+     */
+    void append(Entry entry) {
+        if (writer == null) {
+            return;
+        }
+
+        writer.execute(() -> {
+            ByteBuffer payload = encode(entry);
+            JobHeader header = new JobHeader(entry.jobId(), entry.player(), entry.playerName());
+            if (writeRecord(JOB_RECORD, payload, header)) {
+                jobs.add(header);
+            }
+        });
+    }
+
+    /**
+     * Restores the most recent tree felled by the named player that was not
+     * undone yet, or the job with the given ID.
+     */
+    public void undo(String target, CommandSender sender) {
+        if (writer == null) {
+            sender.sendMessage(ChatColor.RED + "The undo journal is disabled in the config.");
+            return;
+        }
+
+        writer.execute(() -> {
+            JobHeader header = find(target);
+            if (header == null) {
+                reply(sender, ChatColor.RED + "No journaled tree to undo for " + target + ".");
+                return;
+            }
+            if (header.undone) {
+                reply(sender, ChatColor.RED + "Job #" + header.jobId + " was already undone.");
+                return;
+            }
+            if (header.restoring) {
+                reply(sender, ChatColor.RED + "Job #" + header.jobId + " is being restored.");
+                return;
+            }
+
+            Entry entry;
+            try {
+                entry = read(header);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not read job #" + header.jobId + " from the undo journal", e);
+                reply(sender, ChatColor.RED + "Could not read job #" + header.jobId + " from the journal.");
+                return;
+            }
+
+            // Only journaled as undone once every block is back, so a failed or interrupted restore can be retried
+            header.restoring = true;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (!restorer.submit(entry, sender, () -> restored(header))) {
+                    onWriter(() -> header.restoring = false);
+                }
+            });
+        });
+    }
+
+    private void restored(JobHeader header) {
+        onWriter(() -> {
+            ByteBuffer marker = ByteBuffer.allocate(Long.BYTES).putLong(header.jobId).flip();
+            writeRecord(UNDO_RECORD, marker, null);
+            header.undone = true;
+            header.restoring = false;
+        });
+    }
+
+    private void onWriter(Runnable task) {
+        ExecutorService current = writer;
+        if (current != null) {
+            current.execute(task);
+        }
+    }
+
+    /**
+     * Finishes pending writes and releases the segment. Jobs completed after
+     * this point are not journaled.
+     */
+    public void close() {
+        restorer.cancelAll();
+        if (writer == null) {
+            return;
+        }
+
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for the undo journal to finish writing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+        closeSegment();
+        jobs.clear();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Path> segments = listSegments();
+        long lastJobId = 0L;
+        int end = 0;
+        for (Path segment : segments) {
+            end = scan(segment);
+        }
+        for (JobHeader header : jobs) {
+            lastJobId = Math.max(lastJobId, header.jobId);
+        }
+        RemovalJob.reserveIds(lastJobId);
+
+        if (segments.isEmpty()) {
+            startSegment(1, 0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            mapSegment(last, sequenceOf(last), (int) Files.size(last), end);
+        }
+        // Segments a previous run failed to delete
+        expireSegments();
+    }
+
+    /**
+     * Reads the job headers and undo markers of a segment and returns where
+     * its data ends. Only the start of each job record is read; the blocks
+     * are left on disk until the job is undone.
+     */
+    private int scan(Path segment) throws IOException {
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = in.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            ByteBuffer prefix = ByteBuffer.allocate(JOB_PREFIX_BYTES);
+            int position = 0;
+
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                in.read(header, position);
+                int magic = header.getInt(0);
+                int length = header.getInt(4);
+                int minLength = magic == JOB_RECORD ? JOB_FIXED_BYTES + Short.BYTES : Long.BYTES;
+                if ((magic != JOB_RECORD && magic != UNDO_RECORD) || length < minLength || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+
+                prefix.clear().limit(Math.min(length, JOB_PREFIX_BYTES));
+                in.read(prefix, position + HEADER_BYTES);
+                prefix.flip();
+
+                if (magic == JOB_RECORD) {
+                    int needed = JOB_FIXED_BYTES + Short.BYTES + Short.toUnsignedInt(prefix.getShort(JOB_FIXED_BYTES));
+                    ByteBuffer start = prefix;
+                    if (needed > prefix.limit()) {
+                        if (needed > length) {
+                            break;
+                        }
+                        start = ByteBuffer.allocate(needed);
+                        in.read(start, position + HEADER_BYTES);
+                        start.flip();
+                    }
+
+                    JobHeader job = decodeHeader(start);
+                    job.segment = segment;
+                    job.offset = position;
+                    jobs.add(job);
+                } else {
+                    markUndone(prefix.getLong());
+                }
+                position += HEADER_BYTES + length;
+            }
+            return position;
+        }
+    }
+
+    private void markUndone(long jobId) {
+        for (int i = jobs.size() - 1; i >= 0; i--) {
+            if (jobs.get(i).jobId == jobId) {
+                jobs.get(i).undone = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * A number, optionally prefixed with {@code #}, is tried as a job ID
+     * first; player names can be numeric too.
+     */
+    private JobHeader find(String target) {
+        String id = target.startsWith("#") ? target.substring(1) : target;
+        try {
+            long jobId = Long.parseLong(id);
+            for (int i = jobs.size() - 1; i >= 0; i--) {
+                if (jobs.get(i).jobId == jobId) {
+                    return jobs.get(i);
+                }
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        for (int i = jobs.size() - 1; i >= 0; i--) {
+            JobHeader header = jobs.get(i);
+            if (!header.undone && (target.equalsIgnoreCase(header.playerName)
+                    || (header.player != null && target.equalsIgnoreCase(header.player.toString())))) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the record into the active segment, starting a new one if it
+     * does not fit. The type is written last so a torn record reads as the end
+     * of the segment.
+     */
+    private boolean writeRecord(int type, ByteBuffer payload, JobHeader header) {
+        int length = payload.remaining();
+        try {
+            if (buffer == null || buffer.remaining() < HEADER_BYTES + length) {
+                rotate(HEADER_BYTES + length);
+            }
+
+            int offset = buffer.position();
+            buffer.position(offset + HEADER_BYTES);
+            buffer.put(payload);
+            buffer.putInt(offset + 4, length);
+            buffer.putInt(offset, type);
+
+            if (header != null) {
+                header.segment = activeSegment;
+                header.offset = offset;
+            }
+            return true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write to the undo journal", e);
+            return false;
+        }
+    }
+
+    private void rotate(int minBytes) throws IOException {
+        closeSegment();
+        startSegment(activeSequence + 1, minBytes);
+        expireSegments();
+    }
+
+    /**
+     * Deletes the oldest segments beyond the limit. A segment that cannot be
+     * deleted only costs disk space, so the failure is logged and the record
+     * being written still goes ahead; the segment stays listed, so the next
+     * rotation or start tries again.
+     */
+    private void expireSegments() {
+        List<Path> segments;
+        try {
+            segments = listSegments();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not list undo journal segments to expire", e);
+            return;
+        }
+
+        for (int i = 0; i < segments.size() - maxSegments; i++) {
+            Path expired = segments.get(i);
+            jobs.removeIf(job -> job.segment.equals(expired));
+            try {
+                Files.deleteIfExists(expired);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not delete expired undo journal segment " + expired
+                        + ", will try again at the next rotation", e);
+            }
+        }
+    }
+
+    private void startSegment(int sequence, int minBytes) throws IOException {
+        Path segment = directory.resolve(SEGMENT_PREFIX + String.format("%06d", sequence) + SEGMENT_SUFFIX);
+        mapSegment(segment, sequence, Math.max(segmentBytes, minBytes), 0);
+    }
+
+    private void mapSegment(Path segment, int sequence, int size, int position) throws IOException {
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.position(position);
+        activeSegment = segment;
+        activeSequence = sequence;
+    }
+
+    private void closeSegment() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Could not close undo journal segment " + activeSegment, e);
+            }
+            channel = null;
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX) && sequenceOf(path) > 0;
+                    })
+                    .sorted((a, b) -> Integer.compare(sequenceOf(a), sequenceOf(b)))
+                    .toList();
+        }
+    }
+
+    private static int sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private void reply(CommandSender sender, String message) {
+        Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+    }
+
+    private Entry read(JobHeader header) throws IOException {
+        try (FileChannel in = FileChannel.open(header.segment, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            in.read(length, header.offset + 4);
+            ByteBuffer payload = ByteBuffer.allocate(length.getInt(0));
+            in.read(payload, header.offset + HEADER_BYTES);
+            return decode(payload.flip());
+        }
+    }
+
+    /*
+     * Job record layout: job ID, time, player UUID (0/0 if none), block count,
+     * player name, world, palette of (material ordinal, block data), then the
+     * packed keys and the palette index of each block.
+     */
+
+    static ByteBuffer encode(Entry entry) {
+        byte[] playerName = utf8(entry.playerName());
+        byte[] world = utf8(entry.world());
+        byte[][] data = new byte[entry.data().length][];
+        int size = Long.BYTES * 4 + Integer.BYTES + Short.BYTES * 3 + playerName.length + world.length;
+        for (int i = 0; i < data.length; i++) {
+            data[i] = utf8(entry.data()[i]);
+            size += Short.BYTES * 2 + data[i].length;
+        }
+        size += entry.keys().length * (Long.BYTES + Character.BYTES);
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putLong(entry.jobId());
+        out.putLong(entry.time());
+        out.putLong(entry.player() != null ? entry.player().getMostSignificantBits() : 0L);
+        out.putLong(entry.player() != null ? entry.player().getLeastSignificantBits() : 0L);
+        out.putInt(entry.keys().length);
+        putString(out, playerName);
+        putString(out, world);
+        out.putShort((short) data.length);
+        for (int i = 0; i < data.length; i++) {
+            out.putShort(entry.ordinals()[i]);
+            putString(out, data[i]);
+        }
+        for (long key : entry.keys()) {
+            out.putLong(key);
+        }
+        for (char state : entry.states()) {
+            out.putChar(state);
+        }
+        return out.flip();
+    }
+
+    static JobHeader decodeHeader(ByteBuffer in) {
+        long jobId = in.getLong();
+        in.getLong();
+        UUID player = readUuid(in);
+        in.getInt();
+        return new JobHeader(jobId, player, getString(in));
+    }
+
+    static Entry decode(ByteBuffer in) {
+        long jobId = in.getLong();
+        long time = in.getLong();
+        UUID player = readUuid(in);
+        int blocks = in.getInt();
+        String playerName = getString(in);
+        String world = getString(in);
+
+        int paletteSize = Short.toUnsignedInt(in.getShort());
+        short[] ordinals = new short[paletteSize];
+        String[] data = new String[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            ordinals[i] = in.getShort();
+            data[i] = getString(in);
+        }
+
+        long[] keys = new long[blocks];
+        for (int i = 0; i < blocks; i++) {
+            keys[i] = in.getLong();
+        }
+        char[] states = new char[blocks];
+        for (int i = 0; i < blocks; i++) {
+            states[i] = in.getChar();
+        }
+        return new Entry(jobId, time, player, playerName, world, ordinals, data, keys, states);
+    }
+
+    private static UUID readUuid(ByteBuffer in) {
+        long most = in.getLong();
+        long least = in.getLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    private static void putString(ByteBuffer out, byte[] bytes) {
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return bytes.length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Blocks removed by one job: a palette of block states, and for each block
+     * its packed key and palette index.
+     *
+     * @param player the felling player's UUID, or {@code null}
+     */
+    public record Entry(long jobId, long time, UUID player, String playerName, String world,
+                        short[] ordinals, String[] data, long[] keys, char[] states) {}
+
+    static final class JobHeader {
+
+        final long jobId;
+        final UUID player;
+        final String playerName;
+        Path segment;
+        int offset;
+        boolean undone;
+        boolean restoring;
+
+        JobHeader(long jobId, UUID player, String playerName) {
+            this.jobId = jobId;
+            this.player = player;
+            this.playerName = playerName;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Puts journaled trees back from a repeating task, bounded by the same
+ * per-tick nanosecond budget as removal. Blocks go back bottom-up and only
+ * into air, so nothing built since the tree fell is overwritten.
+ */
+public class UndoRestorer {
+
+    private static final Material[] MATERIALS = Material.values();
+    private static final int CLOCK_INTERVAL = 16;
+
+    private final Floatie plugin;
+    private final BlockCleaner blockCleaner;
+    private final ArrayDeque<Restore> pending = new ArrayDeque<>();
+    private BukkitTask task;
+    private long tickBudgetNanos;
+
+    public UndoRestorer(Floatie plugin, BlockCleaner blockCleaner) {
+        this.plugin = plugin;
+        this.blockCleaner = blockCleaner;
+    }
+
+    public void setTickBudgetNanos(long tickBudgetNanos) {
+        this.tickBudgetNanos = Math.max(100_000L, tickBudgetNanos);
+    }
+
+    /**
+     * Queues a restore and returns whether it was started.
+     *
+     * @param onComplete run on the main thread once every block has been
+     *                   handled; not run if the restore is cancelled
+     */
+    boolean submit(UndoJournal.Entry entry, CommandSender sender, Runnable onComplete) {
+        World world = Bukkit.getWorld(entry.world());
+        if (world == null) {
+            sender.sendMessage(ChatColor.RED + "World " + entry.world() + " of job #" + entry.jobId() + " is not loaded.");
+            return false;
+        }
+
+        pending.add(new Restore(entry, world, parsePalette(entry), sender, onComplete));
+        sender.sendMessage(ChatColor.GREEN + "Restoring " + entry.keys().length + " blocks of job #" + entry.jobId()
+                + (entry.playerName() != null ? " felled by " + entry.playerName() : "") + "...");
+
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+        return true;
+    }
+
+    public void cancelAll() {
+        pending.clear();
+        stop();
+    }
+
+    private void tick() {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+
+        while (!pending.isEmpty()) {
+            Restore restore = pending.peek();
+            if (!restore.step(deadline)) {
+                return;
+            }
+
+            pending.poll();
+            restore.onComplete.run();
+            restore.sender.sendMessage(ChatColor.GREEN + "Job #" + restore.entry.jobId() + " restored: "
+                    + restore.restored + " blocks placed, " + restore.skipped + " skipped.");
+        }
+        stop();
+    }
+
+    /**
+     * Parses each palette state once. A state this server version no longer
+     * understands falls back to the default state of its material.
+     */
+    private BlockData[] parsePalette(UndoJournal.Entry entry) {
+        BlockData[] palette = new BlockData[entry.data().length];
+        for (int i = 0; i < palette.length; i++) {
+            try {
+                palette[i] = Bukkit.createBlockData(entry.data()[i]);
+            } catch (IllegalArgumentException e) {
+                int ordinal = entry.ordinals()[i];
+                if (ordinal >= 0 && ordinal < MATERIALS.length && MATERIALS[ordinal].isBlock()) {
+                    palette[i] = MATERIALS[ordinal].createBlockData();
+                }
+            }
+        }
+        return palette;
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private final class Restore {
+
+        final UndoJournal.Entry entry;
+        final World world;
+        final BlockData[] palette;
+        final CommandSender sender;
+        final Runnable onComplete;
+        final long[] order;
+        int cursor;
+        int restored;
+        int skipped;
+
+        Restore(UndoJournal.Entry entry, World world, BlockData[] palette, CommandSender sender, Runnable onComplete) {
+            this.entry = entry;
+            this.world = world;
+            this.palette = palette;
+            this.sender = sender;
+            this.onComplete = onComplete;
+
+            // Y in the high bits, block index in the low bits, so one primitive sort gives bottom-up order
+            long[] keys = entry.keys();
+            order = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                order[i] = ((long) BlockKey.y(keys[i]) << 32) | i;
+            }
+            Arrays.sort(order);
+        }
+
+        /**
+         * Places blocks until done or past the deadline; returns whether done.
+         */
+        boolean step(long deadline) {
+            while (cursor < order.length) {
+                int index = (int) order[cursor++];
+                long key = entry.keys()[index];
+                BlockData data = palette[entry.states()[index]];
+                Block block = world.getBlockAt(BlockKey.x(key), BlockKey.y(key), BlockKey.z(key));
+
+                if (data == null || !block.getType().isAir()) {
+                    skipped++;
+                } else {
+                    // No physics, so leaves keep their distance until the logs under them are back
+                    block.setBlockData(data, false);
+                    blockCleaner.getTreeIndex().blockPlaced(block);
+                    restored++;
+                }
+
+                if (cursor % CLOCK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+                    return cursor >= order.length;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.floatie;
+
+import org.bukkit.Bukkit;
+import org.bukkit.FluidCollisionMode;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.RayTraceResult;
+import org.bukkit.util.Vector;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Simulates thrown axes without spawning projectile entities. Every axe is
+ * advanced ballistically from one shared task, with a block ray trace over
+ * each tick's movement; a hit goes straight to {@link BlockCleaner#cleanBlocks}.
+ */
+public class VirtualProjectileEngine {
+
+    private static final double GRAVITY = 0.03;
+    private static final double DRAG = 0.99;
+    private static final int MAX_LIFETIME_TICKS = 200;
+
+    private final Floatie plugin;
+    private final BlockCleaner blockCleaner;
+    private final AxeRenderer axeRenderer;
+    private final List<VirtualAxe> axes = new ArrayList<>();
+    private BukkitTask task;
+
+    public VirtualProjectileEngine(Floatie plugin, BlockCleaner blockCleaner, AxeRenderer axeRenderer) {
+        this.plugin = plugin;
+        this.blockCleaner = blockCleaner;
+        this.axeRenderer = axeRenderer;
+    }
+
+    public void launch(Player player, Material axeType, double velocity, boolean showVisual) {
+        Location eye = player.getEyeLocation();
+        Vector direction = eye.getDirection().multiply(velocity);
+        VirtualAxe axe = new VirtualAxe(player, eye.getWorld(), eye.getX(), eye.getY() - 0.1, eye.getZ(), direction);
+
+        if (showVisual) {
+            axe.visual = axeRenderer.track(axe, axeType);
+        }
+
+        axes.add(axe);
+
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        }
+    }
+
+    public int getActiveCount() {
+        return axes.size();
+    }
+
+    public void clear() {
+        for (VirtualAxe axe : axes) {
+            axe.discard();
+        }
+        axes.clear();
+        stop();
+    }
+
+    private void tick() {
+        Iterator<VirtualAxe> iterator = axes.iterator();
+        while (iterator.hasNext()) {
+            VirtualAxe axe = iterator.next();
+            if (!step(axe)) {
+                axe.discard();
+                iterator.remove();
+            }
+        }
+
+        if (axes.isEmpty()) {
+            stop();
+        }
+    }
+
+    /**
+     * Advances one axe by a tick. Returns {@code false} once it has hit
+     * something, expired or left loaded terrain.
+     */
+    private boolean step(VirtualAxe axe) {
+        if (++axe.age > MAX_LIFETIME_TICKS || !axe.shooter.isOnline()) {
+            return false;
+        }
+
+        World world = axe.world;
+        if (!world.isChunkLoaded((int) Math.floor(axe.x) >> 4, (int) Math.floor(axe.z) >> 4)) {
+            return false;
+        }
+
+        if (axe.y < world.getMinHeight()) {
+            return false;
+        }
+
+        Vector velocity = axe.velocity;
+        double distance = velocity.length();
+        if (distance > 1.0E-6) {
+            RayTraceResult result = world.rayTraceBlocks(axe.getLocation(), velocity.clone(), distance,
+                    FluidCollisionMode.NEVER, true);
+            if (result != null && result.getHitBlock() != null) {
+                blockCleaner.cleanBlocks(result.getHitBlock(), axe.shooter);
+                return false;
+            }
+        }
+
+        axe.x += velocity.getX();
+        axe.y += velocity.getY();
+        axe.z += velocity.getZ();
+        velocity.multiply(DRAG);
+        velocity.setY(velocity.getY() - GRAVITY);
+        return true;
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private static final class VirtualAxe implements AxeRenderer.Motion {
+
+        private final Player shooter;
+        private final World world;
+        private final Vector velocity;
+        private double x;
+        private double y;
+        private double z;
+        private int age;
+        private boolean alive = true;
+        private AxeRenderer.FlyingAxe visual;
+
+        private VirtualAxe(Player shooter, World world, double x, double y, double z, Vector velocity) {
+            this.shooter = shooter;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.velocity = velocity;
+        }
+
+        @Override
+        public Location getLocation() {
+            return new Location(world, x, y, z);
+        }
+
+        @Override
+        public Vector getVelocity() {
+            return velocity.clone();
+        }
+
+        @Override
+        public boolean isValid() {
+            return alive;
+        }
+
+        void discard() {
+            alive = false;
+            if (visual != null) {
+                visual.release();
+            }
+        }
+    }
+}
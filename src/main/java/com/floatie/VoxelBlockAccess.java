@@ -0,0 +1,117 @@
+package com.floatie;
+
+import org.bukkit.Material;
+
+/**
+ * In-memory block volume for running discovery without a server, e.g. in
+ * benchmarks. Positions outside the volume read as air. Leaves are never
+ * persistent; their distances are set by {@link #updateLeafDistances}.
+ */
+public class VoxelBlockAccess implements BlockAccess {
+
+    private static final Material[] MATERIALS = Material.values();
+
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final short[] blocks;
+    private final byte[] leafDistances;
+
+    public VoxelBlockAccess(int minX, int minY, int minZ, int sizeX, int sizeY, int sizeZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.blocks = new short[sizeX * sizeY * sizeZ];
+        this.leafDistances = new byte[blocks.length];
+        fill(minX, minY, minZ, minX + sizeX - 1, minY + sizeY - 1, minZ + sizeZ - 1, Material.AIR);
+    }
+
+    @Override
+    public Material getType(int x, int y, int z) {
+        int index = indexOf(x, y, z);
+        return index < 0 ? Material.AIR : MATERIALS[blocks[index]];
+    }
+
+    @Override
+    public int getLeafDistance(int x, int y, int z) {
+        int index = indexOf(x, y, z);
+        return index < 0 ? 0 : leafDistances[index];
+    }
+
+    public void set(int x, int y, int z, Material type) {
+        int index = indexOf(x, y, z);
+        if (index >= 0) {
+            blocks[index] = (short) type.ordinal();
+        }
+    }
+
+    /**
+     * Fills the inclusive box, clipped to the volume.
+     */
+    public void fill(int x1, int y1, int z1, int x2, int y2, int z2, Material type) {
+        for (int x = Math.max(x1, minX); x <= Math.min(x2, minX + sizeX - 1); x++) {
+            for (int y = Math.max(y1, minY); y <= Math.min(y2, minY + sizeY - 1); y++) {
+                for (int z = Math.max(z1, minZ); z <= Math.min(z2, minZ + sizeZ - 1); z++) {
+                    blocks[indexOf(x, y, z)] = (short) type.ordinal();
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes the distance of every leaf to the nearest of the given logs
+     * the way the game does, capped at 7. Call after the volume is built.
+     */
+    public void updateLeafDistances(MaterialSet logTypes) {
+        LongQueue queue = new LongQueue(256);
+        for (int x = minX; x < minX + sizeX; x++) {
+            for (int y = minY; y < minY + sizeY; y++) {
+                for (int z = minZ; z < minZ + sizeZ; z++) {
+                    Material type = getType(x, y, z);
+                    leafDistances[indexOf(x, y, z)] = (byte) (BlockCleaner.LEAF_TYPES.contains(type) ? 7 : 0);
+                    if (logTypes.contains(type)) {
+                        queue.add(BlockKey.pack(x, y, z));
+                    }
+                }
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            long key = queue.poll();
+            int x = BlockKey.x(key);
+            int y = BlockKey.y(key);
+            int z = BlockKey.z(key);
+            int next = leafDistances[indexOf(x, y, z)] + 1;
+            if (next >= 7) {
+                continue;
+            }
+
+            for (int side = 0; side < 6; side++) {
+                int nx = x + (side == 0 ? 1 : side == 1 ? -1 : 0);
+                int ny = y + (side == 2 ? 1 : side == 3 ? -1 : 0);
+                int nz = z + (side == 4 ? 1 : side == 5 ? -1 : 0);
+                int index = indexOf(nx, ny, nz);
+                if (index >= 0 && leafDistances[index] > next) {
+                    leafDistances[index] = (byte) next;
+                    queue.add(BlockKey.pack(nx, ny, nz));
+                }
+            }
+        }
+    }
+
+    private int indexOf(int x, int y, int z) {
+        int dx = x - minX;
+        int dy = y - minY;
+        int dz = z - minZ;
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= sizeX || dy >= sizeY || dz >= sizeZ) {
+            return -1;
+        }
+        return (dy * sizeZ + dz) * sizeX + dx;
+    }
+}
@@ -0,0 +1,140 @@
+package com.floatie;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+
+public final class WorldGuardHook implements ProtectionHook {
+
+    private final MethodHandle adaptLocation;
+    private final MethodHandle wrapPlayer;
+    private final MethodHandle testBreak;
+    private final ChunkProbe chunkProbe;
+
+    private WorldGuardHook(MethodHandle adaptLocation, MethodHandle wrapPlayer, MethodHandle testBreak, ChunkProbe chunkProbe) {
+        this.adaptLocation = adaptLocation;
+        this.wrapPlayer = wrapPlayer;
+        this.testBreak = testBreak;
+        this.chunkProbe = chunkProbe;
+    }
+
+    public static WorldGuardHook link() throws ReflectiveOperationException {
+        Class<?> adapterClass = Class.forName("com.sk89q.worldedit.bukkit.BukkitAdapter");
+        Class<?> worldGuardClass = Class.forName("com.sk89q.worldguard.WorldGuard");
+        Class<?> flagsClass = Class.forName("com.sk89q.worldguard.protection.flags.Flags");
+        Class<?> wgPluginClass = Class.forName("com.sk89q.worldguard.bukkit.WorldGuardPlugin");
+        Class<?> weLocationClass = Class.forName("com.sk89q.worldedit.util.Location");
+        Class<?> localPlayerClass = Class.forName("com.sk89q.worldguard.LocalPlayer");
+        Class<?> stateFlagClass = Class.forName("com.sk89q.worldguard.protection.flags.StateFlag");
+
+        Method getInstance = worldGuardClass.getMethod("getInstance");
+        Object wgInstance = getInstance.invoke(null);
+        Method getPlatform = getInstance.getReturnType().getMethod("getPlatform");
+        Object platform = getPlatform.invoke(wgInstance);
+        Method getRegionContainer = getPlatform.getReturnType().getMethod("getRegionContainer");
+        Object regionContainer = getRegionContainer.invoke(platform);
+        Method createQuery = getRegionContainer.getReturnType().getMethod("createQuery");
+        Object query = createQuery.invoke(regionContainer);
+
+        Object wgPlugin = wgPluginClass.getMethod("inst").invoke(null);
+        Object flags = Array.newInstance(stateFlagClass, 1);
+        Array.set(flags, 0, flagsClass.getField("BLOCK_BREAK").get(null));
+
+        MethodHandle adapt = LOOKUP.unreflect(adapterClass.getMethod("adapt", Location.class))
+                .asType(MethodType.methodType(Object.class, Location.class));
+        MethodHandle wrap = LOOKUP.unreflect(wgPluginClass.getMethod("wrapPlayer", Player.class))
+                .bindTo(wgPlugin)
+                .asType(MethodType.methodType(Object.class, Player.class));
+        Method testStateMethod = createQuery.getReturnType()
+                .getMethod("testState", weLocationClass, localPlayerClass, flags.getClass());
+        MethodHandle testState = MethodHandles.insertArguments(
+                        LOOKUP.unreflect(testStateMethod).asFixedArity().bindTo(query), 2, flags)
+                .asType(MethodType.methodType(boolean.class, Object.class, Object.class));
+
+        ChunkProbe probe;
+        try {
+            probe = ChunkProbe.link(adapterClass, getRegionContainer.getReturnType(), regionContainer);
+        } catch (ReflectiveOperationException e) {
+            probe = null;
+        }
+
+        return new WorldGuardHook(adapt, wrap, testState, probe);
+    }
+
+    @Override
+    public String getName() {
+        return "WorldGuard";
+    }
+
+    @Override
+    public boolean canBreak(Player player, Location location) throws Throwable {
+        Object adaptedLocation = (Object) adaptLocation.invokeExact(location);
+        Object localPlayer = (Object) wrapPlayer.invokeExact(player);
+        return (boolean) testBreak.invokeExact(adaptedLocation, localPlayer);
+    }
+
+    @Override
+    public ChunkDecision checkChunk(Player player, Location sample, int chunkX, int chunkZ) throws Throwable {
+        if (chunkProbe == null || chunkProbe.countRegions(sample.getWorld(), chunkX, chunkZ) > 0) {
+            return ChunkDecision.PER_BLOCK;
+        }
+
+        return canBreak(player, sample) ? ChunkDecision.ALLOW : ChunkDecision.DENY;
+    }
+
+    /**
+     * Counts the regions intersecting a chunk column by querying the region
+     * manager with a transient cuboid covering it.
+     */
+    private record ChunkProbe(MethodHandle adaptWorld, MethodHandle regionManager, MethodHandle blockVector,
+                              MethodHandle newCuboid, MethodHandle applicableRegions, MethodHandle regionCount) {
+
+        private static final String PROBE_ID = "floatie_chunk_probe";
+
+        static ChunkProbe link(Class<?> adapterClass, Class<?> regionContainerClass, Object regionContainer)
+                throws ReflectiveOperationException {
+            Class<?> weWorldClass = Class.forName("com.sk89q.worldedit.world.World");
+            Class<?> blockVectorClass = Class.forName("com.sk89q.worldedit.math.BlockVector3");
+            Class<?> cuboidClass = Class.forName("com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion");
+            Class<?> protectedRegionClass = Class.forName("com.sk89q.worldguard.protection.regions.ProtectedRegion");
+
+            Method getManager = regionContainerClass.getMethod("get", weWorldClass);
+            Method getApplicable = getManager.getReturnType().getMethod("getApplicableRegions", protectedRegionClass);
+
+            MethodHandle adaptWorld = LOOKUP.unreflect(adapterClass.getMethod("adapt", World.class))
+                    .asType(MethodType.methodType(Object.class, World.class));
+            MethodHandle regionManager = LOOKUP.unreflect(getManager)
+                    .bindTo(regionContainer)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            MethodHandle blockVector = LOOKUP.unreflect(blockVectorClass.getMethod("at", int.class, int.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class, int.class, int.class));
+            MethodHandle newCuboid = LOOKUP.unreflectConstructor(
+                            cuboidClass.getConstructor(String.class, blockVectorClass, blockVectorClass))
+                    .asType(MethodType.methodType(Object.class, String.class, Object.class, Object.class));
+            MethodHandle applicableRegions = LOOKUP.unreflect(getApplicable)
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            MethodHandle regionCount = LOOKUP.unreflect(getApplicable.getReturnType().getMethod("size"))
+                    .asType(MethodType.methodType(int.class, Object.class));
+
+            return new ChunkProbe(adaptWorld, regionManager, blockVector, newCuboid, applicableRegions, regionCount);
+        }
+
+        int countRegions(World world, int chunkX, int chunkZ) throws Throwable {
+            Object manager = (Object) regionManager.invokeExact((Object) adaptWorld.invokeExact(world));
+            if (manager == null) {
+                return 0;
+            }
+
+            Object min = (Object) blockVector.invokeExact(chunkX << 4, world.getMinHeight(), chunkZ << 4);
+            Object max = (Object) blockVector.invokeExact((chunkX << 4) + 15, world.getMaxHeight() - 1, (chunkZ << 4) + 15);
+            Object probe = (Object) newCuboid.invokeExact(PROBE_ID, min, max);
+            return (int) regionCount.invokeExact((Object) applicableRegions.invokeExact(manager, probe));
+        }
+    }
+}
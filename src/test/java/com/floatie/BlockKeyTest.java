@@ -0,0 +1,51 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class BlockKeyTest {
+
+    private static final int MIN_XZ = -(1 << 25);
+    private static final int MAX_XZ = (1 << 25) - 1;
+    private static final int MIN_Y = -(1 << 11);
+    private static final int MAX_Y = (1 << 11) - 1;
+
+    @Test
+    void roundTripsCornersOfTheRange() {
+        int[] xs = {MIN_XZ, -1, 0, 1, MAX_XZ};
+        int[] ys = {MIN_Y, -64, -1, 0, 1, 319, MAX_Y};
+
+        for (int x : xs) {
+            for (int y : ys) {
+                for (int z : xs) {
+                    long key = BlockKey.pack(x, y, z);
+                    assertEquals(x, BlockKey.x(key), "x of " + x + "," + y + "," + z);
+                    assertEquals(y, BlockKey.y(key), "y of " + x + "," + y + "," + z);
+                    assertEquals(z, BlockKey.z(key), "z of " + x + "," + y + "," + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void signExtendsNegativeCoordinates() {
+        long key = BlockKey.pack(-30_000_000, -2048, -30_000_000);
+
+        assertEquals(-30_000_000, BlockKey.x(key));
+        assertEquals(-2048, BlockKey.y(key));
+        assertEquals(-30_000_000, BlockKey.z(key));
+    }
+
+    @Test
+    void negativeNeighboursDoNotCollide() {
+        long origin = BlockKey.pack(0, 0, 0);
+
+        assertNotEquals(origin, BlockKey.pack(-1, 0, 0));
+        assertNotEquals(origin, BlockKey.pack(0, -1, 0));
+        assertNotEquals(origin, BlockKey.pack(0, 0, -1));
+        assertNotEquals(BlockKey.pack(-1, 0, 0), BlockKey.pack(0, 0, -1));
+        assertNotEquals(BlockKey.pack(0, -1, 0), BlockKey.pack(0, 0, -1));
+    }
+}
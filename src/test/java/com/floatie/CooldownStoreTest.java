@@ -0,0 +1,92 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CooldownStoreTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final UUID player = UUID.randomUUID();
+    private final UUID other = UUID.randomUUID();
+    private long now = 1_000_000 * MILLIS;
+
+    @Test
+    void reportsTheTimeLeft() {
+        CooldownStore store = new CooldownStore(() -> now);
+        store.start(player, 2_000 * MILLIS);
+
+        now += 500 * MILLIS;
+        assertEquals(1_500 * MILLIS, store.remaining(player));
+
+        now += 1_500 * MILLIS;
+        assertEquals(0L, store.remaining(player));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void wheelEvictsPlayersThatAreNeverAskedAgain() {
+        CooldownStore store = new CooldownStore(() -> now);
+        store.start(player, 300 * MILLIS);
+        assertEquals(1, store.size());
+
+        now += 400 * MILLIS;
+        store.remaining(other);
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void evictsEverythingAfterAnIdleGap() {
+        CooldownStore store = new CooldownStore(() -> now);
+        store.start(player, 300 * MILLIS);
+        store.start(other, 1_000 * MILLIS);
+
+        now += 3_600_000 * MILLIS;
+        store.remaining(UUID.randomUUID());
+
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void keepsCooldownsLongerThanOneTurnOfTheWheel() {
+        CooldownStore store = new CooldownStore(() -> now);
+        store.start(player, 10_000 * MILLIS);
+
+        // Passes the player's slot once before the cooldown is over
+        now += 7_000 * MILLIS;
+        store.remaining(other);
+        assertEquals(1, store.size());
+        assertEquals(3_000 * MILLIS, store.remaining(player));
+
+        now += 4_000 * MILLIS;
+        store.remaining(other);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void restartedCooldownSurvivesItsOldSlot() {
+        CooldownStore store = new CooldownStore(() -> now);
+        store.start(player, 200 * MILLIS);
+        store.start(player, 2_000 * MILLIS);
+
+        now += 500 * MILLIS;
+        store.remaining(other);
+
+        assertEquals(1, store.size());
+        assertEquals(1_500 * MILLIS, store.remaining(player));
+    }
+
+    @Test
+    void removeEndsTheCooldown() {
+        CooldownStore store = new CooldownStore(() -> now);
+        store.start(player, 2_000 * MILLIS);
+        store.remove(player);
+
+        assertEquals(0L, store.remaining(player));
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,92 @@
+package com.floatie;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LayerQueueTest {
+
+    @Test
+    void drainsFromTheTopLayerDown() {
+        LayerQueue queue = new LayerQueue();
+        queue.add(BlockKey.pack(0, 64, 0), Material.OAK_LOG);
+        queue.add(BlockKey.pack(0, 70, 0), Material.OAK_LEAVES);
+        queue.add(BlockKey.pack(1, 66, 0), Material.OAK_LOG);
+        queue.add(BlockKey.pack(2, 70, 0), Material.OAK_LEAVES);
+
+        List<Integer> ys = new ArrayList<>();
+        assertEquals(4, queue.drain(10, (key, type) -> ys.add(BlockKey.y(key))));
+
+        assertEquals(List.of(70, 70, 66, 64), ys);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void blocksAddedAboveWhileDrainingComeNext() {
+        LayerQueue queue = new LayerQueue();
+        queue.add(BlockKey.pack(0, 64, 0), Material.OAK_LOG);
+        queue.add(BlockKey.pack(0, 65, 0), Material.OAK_LOG);
+
+        List<Integer> ys = new ArrayList<>();
+        assertEquals(1, queue.drain(1, (key, type) -> ys.add(BlockKey.y(key))));
+        queue.add(BlockKey.pack(0, 80, 0), Material.OAK_LEAVES);
+        queue.drain(10, (key, type) -> ys.add(BlockKey.y(key)));
+
+        assertEquals(List.of(65, 80, 64), ys);
+    }
+
+    @Test
+    void growsBelowTheFirstLayer() {
+        LayerQueue queue = new LayerQueue();
+        queue.add(BlockKey.pack(0, 100, 0), Material.OAK_LEAVES);
+        queue.add(BlockKey.pack(0, 10, 0), Material.OAK_LOG);
+        queue.add(BlockKey.pack(0, -60, 0), Material.OAK_LOG);
+        queue.add(BlockKey.pack(0, 101, 0), Material.OAK_LEAVES);
+
+        List<Integer> ys = new ArrayList<>();
+        List<Material> types = new ArrayList<>();
+        queue.drain(10, (key, type) -> {
+            ys.add(BlockKey.y(key));
+            types.add(type);
+        });
+
+        assertEquals(List.of(101, 100, 10, -60), ys);
+        assertEquals(List.of(Material.OAK_LEAVES, Material.OAK_LEAVES, Material.OAK_LOG, Material.OAK_LOG), types);
+    }
+
+    @Test
+    void growingBelowKeepsAPartlyDrainedLayer() {
+        LayerQueue queue = new LayerQueue();
+        queue.add(BlockKey.pack(0, 50, 0), Material.OAK_LOG);
+        queue.add(BlockKey.pack(1, 50, 0), Material.OAK_LOG);
+        queue.drain(1, (key, type) -> { });
+
+        // The layers move up to make room, and the one half taken must resume where it was
+        queue.add(BlockKey.pack(0, 40, 0), Material.OAK_LOG);
+        assertEquals(2, queue.size());
+
+        List<Long> keys = new ArrayList<>();
+        queue.drain(10, (key, type) -> keys.add(key));
+        assertEquals(List.of(BlockKey.pack(1, 50, 0), BlockKey.pack(0, 40, 0)), keys);
+    }
+
+    @Test
+    void forEachKeyIncludesDrainedBlocks() {
+        LayerQueue queue = new LayerQueue();
+        for (int y = 0; y < 20; y++) {
+            queue.add(BlockKey.pack(0, y, 0), Material.OAK_LOG);
+        }
+        queue.drain(15, (key, type) -> { });
+
+        int[] visited = new int[1];
+        queue.forEachKey(key -> visited[0]++);
+
+        assertEquals(20, visited[0]);
+        assertEquals(5, queue.size());
+    }
+}
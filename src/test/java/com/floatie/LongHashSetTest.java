@@ -0,0 +1,60 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+
+    @Test
+    void storesTheZeroKeyOutsideTheTable() {
+        LongHashSet set = new LongHashSet(4);
+
+        assertFalse(set.contains(0L));
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.contains(0L));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void keepsTheZeroKeyAcrossGrowth() {
+        LongHashSet set = new LongHashSet(4);
+        set.add(0L);
+        for (long key = 1; key <= 1000; key++) {
+            assertTrue(set.add(key));
+        }
+
+        assertTrue(set.contains(0L));
+        assertEquals(1001, set.size());
+        for (long key = 1; key <= 1000; key++) {
+            assertTrue(set.contains(key));
+        }
+        assertFalse(set.contains(1001L));
+    }
+
+    @Test
+    void clearForgetsTheZeroKey() {
+        LongHashSet set = new LongHashSet(4);
+        set.add(0L);
+        set.add(BlockKey.pack(-1, -1, -1));
+        set.clear();
+
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains(BlockKey.pack(-1, -1, -1)));
+        assertEquals(0, set.size());
+        assertTrue(set.add(0L));
+    }
+
+    @Test
+    void clearsASetHoldingOnlyTheZeroKey() {
+        LongHashSet set = new LongHashSet(4);
+        set.add(0L);
+        set.clear();
+
+        assertFalse(set.contains(0L));
+        assertEquals(0, set.size());
+    }
+}
@@ -0,0 +1,142 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongObjectMapTest {
+
+    /**
+     * A map built with an expected size of 4 has 8 slots and holds 4 entries
+     * before it grows.
+     */
+    private static final int SMALL_MASK = 7;
+
+    @Test
+    void storesZeroAndNegativeKeys() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        map.put(0L, "zero");
+        map.put(-1L, "minus one");
+        map.put(Long.MIN_VALUE, "min");
+
+        assertEquals("zero", map.get(0L));
+        assertEquals("minus one", map.get(-1L));
+        assertEquals("min", map.get(Long.MIN_VALUE));
+        assertEquals("zero", map.put(0L, "again"));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void backwardShiftKeepsAWrappedClusterReachable() {
+        // Three keys that all want the last slot wrap around to the front,
+        // and a fourth that wants slot 0 lands behind them
+        List<Long> lastSlot = keysWithHome(SMALL_MASK, 3);
+        long firstSlot = keysWithHome(0, 1).get(0);
+
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        for (long key : lastSlot) {
+            map.put(key, key);
+        }
+        map.put(firstSlot, firstSlot);
+
+        assertEquals(lastSlot.get(0), map.remove(lastSlot.get(0)));
+        assertNull(map.get(lastSlot.get(0)));
+        assertEquals(lastSlot.get(1), map.get(lastSlot.get(1)));
+        assertEquals(lastSlot.get(2), map.get(lastSlot.get(2)));
+        assertEquals(firstSlot, map.get(firstSlot));
+
+        assertEquals(lastSlot.get(2), map.remove(lastSlot.get(2)));
+        assertEquals(lastSlot.get(1), map.get(lastSlot.get(1)));
+        assertEquals(firstSlot, map.get(firstSlot));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void removeIfRemovesMatchesAcrossAWrappedCluster() {
+        List<Long> lastSlot = keysWithHome(SMALL_MASK, 4);
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        for (long key : lastSlot) {
+            map.put(key, key);
+        }
+
+        // Removing the entry in the last slot shifts the wrapped ones back over the end of the table
+        long kept = lastSlot.get(2);
+        assertEquals(3, map.removeIf(value -> value != kept));
+
+        assertEquals(1, map.size());
+        assertEquals(kept, map.get(kept));
+        for (long key : lastSlot) {
+            if (key != kept) {
+                assertNull(map.get(key));
+            }
+        }
+    }
+
+    @Test
+    void removeIfAgreesWithAReferenceMap() {
+        LongObjectMap<Long> map = new LongObjectMap<>(16);
+        for (long key = -500; key < 500; key++) {
+            map.put(key * 31, key);
+        }
+
+        assertEquals(500, map.removeIf(value -> (value & 1) == 0));
+        assertEquals(500, map.size());
+        for (long key = -500; key < 500; key++) {
+            if ((key & 1) == 0) {
+                assertNull(map.get(key * 31));
+            } else {
+                assertEquals(key, map.get(key * 31));
+            }
+        }
+
+        List<Long> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(500, values.size());
+        assertTrue(values.stream().allMatch(value -> (value & 1) != 0));
+    }
+
+    @Test
+    void forEachKeyVisitsEveryKeyOnce() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        for (long key = -20; key <= 20; key++) {
+            map.put(key, "value");
+        }
+        map.remove(5L);
+
+        LongHashSet keys = new LongHashSet(64);
+        map.forEachKey(key -> assertTrue(keys.add(key)));
+
+        assertEquals(40, keys.size());
+        assertTrue(keys.contains(0L));
+        assertTrue(keys.contains(-20L));
+        assertFalse(keys.contains(5L));
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongObjectMap<String> map = new LongObjectMap<>(4);
+        map.put(1L, "one");
+        map.put(2L, "two");
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1L));
+        assertNull(map.put(1L, "one"));
+    }
+
+    private static List<Long> keysWithHome(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            if ((LongObjectMap.mix(key) & SMALL_MASK) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
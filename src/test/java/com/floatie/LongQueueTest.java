@@ -0,0 +1,66 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongQueueTest {
+
+    @Test
+    void wrapsAroundWithoutGrowing() {
+        LongQueue queue = new LongQueue(8);
+        long next = 0;
+        long expected = 0;
+
+        // Keep a few elements queued while the head walks around the buffer several times
+        for (int round = 0; round < 50; round++) {
+            while (queue.size() < 5) {
+                queue.add(next++);
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expected++, queue.poll());
+            }
+        }
+        while (!queue.isEmpty()) {
+            assertEquals(expected++, queue.poll());
+        }
+        assertEquals(next, expected);
+    }
+
+    @Test
+    void growsWhileWrapped() {
+        LongQueue queue = new LongQueue(8);
+        for (long i = 0; i < 6; i++) {
+            queue.add(i);
+        }
+        for (long i = 0; i < 4; i++) {
+            assertEquals(i, queue.poll());
+        }
+
+        // The head is mid-buffer, so these wrap and then force a grow
+        for (long i = 6; i < 40; i++) {
+            queue.add(i);
+        }
+
+        assertEquals(36, queue.size());
+        for (long i = 4; i < 40; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void clearResetsTheQueue() {
+        LongQueue queue = new LongQueue(4);
+        queue.add(1L);
+        queue.add(2L);
+        queue.poll();
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+        queue.add(3L);
+        assertEquals(1, queue.size());
+        assertEquals(3L, queue.poll());
+    }
+}
@@ -0,0 +1,100 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RemovalRateControllerTest {
+
+    private static final long TICK_BUDGET = 5_000_000L;
+
+    /**
+     * Plain Spigot: no MSPT, and the tick interval reads as an ideal 50 ms.
+     */
+    private final TickMonitor tickMonitor = new TickMonitor(null, null);
+
+    private RemovalRateController controller(int minBlocks, int maxBlocks, double increase) {
+        RemovalRateController controller = new RemovalRateController(tickMonitor);
+        controller.configure(minBlocks, maxBlocks, increase, 0.5, 45.0, 100.0);
+        return controller;
+    }
+
+    @Test
+    void startsAtTheMinimum() {
+        assertEquals(10, controller(10, 100, 5).nextBudget(TICK_BUDGET));
+    }
+
+    @Test
+    void growsOnlyWhenTheBudgetWasUsedUp() {
+        RemovalRateController controller = controller(10, 100, 5);
+
+        controller.recordBatch(4, 100_000L);
+        assertEquals(10, controller.nextBudget(TICK_BUDGET));
+
+        controller.recordBatch(10, 100_000L);
+        assertEquals(15, controller.nextBudget(TICK_BUDGET));
+        controller.recordBatch(15, 150_000L);
+        assertEquals(20, controller.nextBudget(TICK_BUDGET));
+    }
+
+    @Test
+    void stopsAtTheMaximum() {
+        RemovalRateController controller = controller(10, 30, 50);
+
+        controller.recordBatch(10, 10_000L);
+        assertEquals(30, controller.nextBudget(TICK_BUDGET));
+    }
+
+    @Test
+    void backsOffWhenABatchNearlyFillsTheTickBudget() {
+        RemovalRateController controller = controller(10, 1000, 30);
+        for (int budget = 10; budget < 100; budget += 30) {
+            controller.recordBatch(budget, 10_000L);
+            controller.nextBudget(TICK_BUDGET);
+        }
+        assertEquals(100, controller.getCurrentBudget());
+
+        // 4.6 ms of a 5 ms budget is past the 90% back-off line
+        controller.recordBatch(100, 4_600_000L);
+        assertEquals(50, controller.nextBudget(TICK_BUDGET));
+    }
+
+    @Test
+    void holdsBetweenTheHoldAndBackOffLines() {
+        RemovalRateController controller = controller(10, 100, 5);
+
+        // 80% of the budget: used up, but too close to the limit to grow
+        controller.recordBatch(10, 4_000_000L);
+        assertEquals(10, controller.nextBudget(TICK_BUDGET));
+    }
+
+    @Test
+    void neverExceedsWhatTheMeasuredCostFitsInATick() {
+        RemovalRateController controller = controller(1, 1000, 500);
+
+        // 100 us per block: 90% of a 5 ms budget fits 45 blocks
+        controller.recordBatch(1, 100_000L);
+        assertEquals(45, controller.nextBudget(TICK_BUDGET));
+    }
+
+    @Test
+    void neverBacksOffBelowTheMinimum() {
+        RemovalRateController controller = controller(10, 100, 5);
+        for (int i = 0; i < 20; i++) {
+            controller.backOff();
+        }
+
+        assertEquals(10, controller.getCurrentBudget());
+    }
+
+    @Test
+    void pausesOnTheTickIntervalWithoutMspt() {
+        assertFalse(controller(10, 100, 5).shouldPause());
+
+        RemovalRateController strict = new RemovalRateController(tickMonitor);
+        strict.configure(10, 100, 5, 0.5, 45.0, 40.0);
+        assertTrue(strict.shouldPause());
+    }
+}
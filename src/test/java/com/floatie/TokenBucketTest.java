@@ -0,0 +1,54 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private long now = 5 * SECOND;
+
+    @Test
+    void startsFull() {
+        TokenBucket bucket = new TokenBucket(200, () -> now);
+
+        assertEquals(200, bucket.available());
+    }
+
+    @Test
+    void refillsInProportionToElapsedTime() {
+        TokenBucket bucket = new TokenBucket(200, () -> now);
+        bucket.consume(200);
+        assertEquals(0, bucket.available());
+
+        now += 251_000_000L;
+        assertEquals(50, bucket.available());
+
+        bucket.consume(30);
+        now += 101_000_000L;
+        assertEquals(40, bucket.available());
+    }
+
+    @Test
+    void holdsAtMostOneSecondOfTokens() {
+        TokenBucket bucket = new TokenBucket(200, () -> now);
+        bucket.consume(10);
+
+        now += 60 * SECOND;
+        assertEquals(200, bucket.available());
+    }
+
+    @Test
+    void slowRatesStillAllowOneBlock() {
+        TokenBucket bucket = new TokenBucket(0.5, () -> now);
+        assertEquals(1, bucket.available());
+
+        bucket.consume(1);
+        now += SECOND;
+        assertEquals(0, bucket.available());
+        now += SECOND + SECOND / 2;
+        assertEquals(1, bucket.available());
+    }
+}
@@ -0,0 +1,108 @@
+package com.floatie;
+
+import org.bukkit.Material;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TreeScannerTest {
+
+    private static final MaterialSet LOGS = MaterialSet.of(Material.OAK_LOG, Material.BIRCH_LOG);
+    private static final int SEARCH_RADIUS = 16;
+
+    /**
+     * A six-log trunk at the origin through a 7x3x7 canopy, whose leaves reach
+     * distance 6 at the corners.
+     */
+    private static VoxelBlockAccess singleTree() {
+        VoxelBlockAccess access = new VoxelBlockAccess(-12, 0, -12, 25, 16, 25);
+        access.fill(-3, 4, -3, 3, 6, 3, Material.OAK_LEAVES);
+        access.fill(0, 0, 0, 0, 5, 0, Material.OAK_LOG);
+        access.updateLeafDistances(LOGS);
+        return access;
+    }
+
+    @Test
+    void findsTheTrunkAndEveryLeafInDistanceOrder() {
+        VoxelBlockAccess access = singleTree();
+
+        TreeScanner.ScanResult result = TreeScanner.get().scan(access, null, 0, 0, 0, 1000, 7, SEARCH_RADIUS);
+
+        assertEquals(6, result.logs().length);
+        assertEquals(Material.OAK_LOG, result.logType());
+        assertEquals(7 * 3 * 7 - 2, result.leaves().length);
+        int previous = 1;
+        for (long leaf : result.leaves()) {
+            int distance = access.getLeafDistance(BlockKey.x(leaf), BlockKey.y(leaf), BlockKey.z(leaf));
+            assertTrue(distance >= previous, "leaves out of distance order");
+            previous = distance;
+        }
+    }
+
+    @Test
+    void stopsAtTheLeafSearchRadius() {
+        VoxelBlockAccess access = singleTree();
+        int expected = 0;
+        for (int x = -3; x <= 3; x++) {
+            for (int y = 4; y <= 6; y++) {
+                for (int z = -3; z <= 3; z++) {
+                    int distance = access.getLeafDistance(x, y, z);
+                    if (distance >= 1 && distance <= 2) {
+                        expected++;
+                    }
+                }
+            }
+        }
+
+        TreeScanner.ScanResult result = TreeScanner.get().scan(access, null, 0, 0, 0, 1000, 2, SEARCH_RADIUS);
+
+        assertEquals(expected, result.leaves().length);
+        for (long leaf : result.leaves()) {
+            assertTrue(access.getLeafDistance(BlockKey.x(leaf), BlockKey.y(leaf), BlockKey.z(leaf)) <= 2);
+        }
+    }
+
+    @Test
+    void leavesTheOtherTreesShareOfAnOverlappingCanopy() {
+        VoxelBlockAccess access = new VoxelBlockAccess(-12, 0, -12, 30, 16, 25);
+        access.fill(-2, 5, -2, 8, 7, 2, Material.OAK_LEAVES);
+        access.fill(0, 0, 0, 0, 5, 0, Material.OAK_LOG);
+        access.fill(6, 0, 0, 6, 5, 0, Material.BIRCH_LOG);
+        access.updateLeafDistances(LOGS);
+
+        TreeScanner.ScanResult result = TreeScanner.get().scan(access, null, 0, 0, 0, 1000, 7, SEARCH_RADIUS);
+
+        // Halfway leaves are as close to the birch as to the oak, so they stay
+        assertEquals(5 * 3 * 5 - 1, result.leaves().length);
+        for (long leaf : result.leaves()) {
+            assertTrue(BlockKey.x(leaf) <= 2, "took a leaf the birch holds up");
+        }
+    }
+
+    @Test
+    void skipsBlocksTheFilterRejects() {
+        VoxelBlockAccess access = singleTree();
+
+        TreeScanner.ScanResult result = TreeScanner.get().scan(access, (x, y, z) -> y < 3,
+                0, 0, 0, 1000, 7, SEARCH_RADIUS);
+
+        assertEquals(3, result.logs().length);
+        assertEquals(0, result.leaves().length);
+    }
+
+    @Test
+    void scanLeavesStartsFromTheKnownLogs() {
+        VoxelBlockAccess access = singleTree();
+        long[] logs = new long[6];
+        for (int y = 0; y < logs.length; y++) {
+            logs[y] = BlockKey.pack(0, y, 0);
+        }
+
+        TreeScanner.ScanResult result = TreeScanner.get().scanLeaves(access, null, null, logs, Material.OAK_LOG,
+                0, 0, 0, 1000, 7, SEARCH_RADIUS);
+
+        assertEquals(6, result.logs().length);
+        assertEquals(7 * 3 * 7 - 2, result.leaves().length);
+    }
+}
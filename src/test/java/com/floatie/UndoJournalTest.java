@@ -0,0 +1,93 @@
+package com.floatie;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UndoJournalTest {
+
+    private static final short[] ORDINALS = {12, 345};
+    private static final String[] DATA = {
+            "minecraft:oak_log[axis=y]",
+            "minecraft:oak_leaves[distance=1,persistent=false,waterlogged=false]"
+    };
+
+    @Test
+    void jobRecordRoundTrips() {
+        UUID player = UUID.randomUUID();
+        long[] keys = {BlockKey.pack(-30_000_000, -64, 29_999_999), BlockKey.pack(0, 0, 0), BlockKey.pack(5, 319, -5)};
+        char[] states = {0, 1, 1};
+        UndoJournal.Entry entry = new UndoJournal.Entry(42L, 1_700_000_000_000L, player, "Steve", "world_nether",
+                ORDINALS, DATA, keys, states);
+
+        ByteBuffer payload = UndoJournal.encode(entry);
+        UndoJournal.Entry decoded = UndoJournal.decode(payload);
+
+        assertFalse(payload.hasRemaining());
+        assertEquals(42L, decoded.jobId());
+        assertEquals(1_700_000_000_000L, decoded.time());
+        assertEquals(player, decoded.player());
+        assertEquals("Steve", decoded.playerName());
+        assertEquals("world_nether", decoded.world());
+        assertArrayEquals(ORDINALS, decoded.ordinals());
+        assertArrayEquals(DATA, decoded.data());
+        assertArrayEquals(keys, decoded.keys());
+        assertArrayEquals(states, decoded.states());
+    }
+
+    @Test
+    void jobWithoutPlayerRoundTrips() {
+        UndoJournal.Entry entry = new UndoJournal.Entry(1L, 0L, null, null, "world",
+                new short[0], new String[0], new long[0], new char[0]);
+
+        UndoJournal.Entry decoded = UndoJournal.decode(UndoJournal.encode(entry));
+
+        assertNull(decoded.player());
+        assertNull(decoded.playerName());
+        assertEquals("world", decoded.world());
+        assertEquals(0, decoded.keys().length);
+        assertEquals(0, decoded.data().length);
+    }
+
+    @Test
+    void largePaletteIndexesSurvive() {
+        char[] states = {0, 0xFFFE};
+        String[] data = new String[0xFFFF];
+        short[] ordinals = new short[data.length];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = "minecraft:stone";
+        }
+        UndoJournal.Entry entry = new UndoJournal.Entry(7L, 0L, null, null, "world",
+                ordinals, data, new long[]{1L, 2L}, states);
+
+        UndoJournal.Entry decoded = UndoJournal.decode(UndoJournal.encode(entry));
+
+        assertEquals(0xFFFF, decoded.data().length);
+        assertArrayEquals(states, decoded.states());
+    }
+
+    @Test
+    void headerDecodesFromTheRecordPrefixAlone() {
+        UUID player = UUID.randomUUID();
+        String name = "Zoë";
+        UndoJournal.Entry entry = new UndoJournal.Entry(99L, 5L, player, name, "world",
+                ORDINALS, DATA, new long[]{BlockKey.pack(1, 2, 3)}, new char[]{1});
+
+        ByteBuffer payload = UndoJournal.encode(entry);
+        // Job ID, time, UUID, block count, then the length-prefixed player name
+        int prefix = Long.BYTES * 4 + Integer.BYTES + Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length;
+        UndoJournal.JobHeader header = UndoJournal.decodeHeader(payload.limit(prefix));
+
+        assertEquals(99L, header.jobId);
+        assertEquals(player, header.player);
+        assertEquals(name, header.playerName);
+        assertFalse(header.undone);
+    }
+}